@@ -0,0 +1,120 @@
+package uk.gov.hmcts.reform.migration.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.gov.hmcts.reform.ccd.client.model.CaseDetails;
+import uk.gov.hmcts.reform.domain.common.CollectionEntry;
+import uk.gov.hmcts.reform.domain.common.Party;
+import uk.gov.hmcts.reform.migration.ccd.CaseDataFingerprint;
+import uk.gov.hmcts.reform.migration.service.CaseData;
+import uk.gov.hmcts.reform.migration.service.CasePath;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Upper-cases every respondent's postcode, through a copy-on-write {@link CaseData} view, by deep copying the data
+ * and changing the copy, and by mapping the respondents to domain objects and back. {@code fingerprint} is the
+ * cost of one of the two hashes taken to find out whether a plain migration changed a case.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CaseDataBenchmark {
+
+    private static final int CASES = 100;
+
+    private static final CasePath POSTCODES = CasePath.of("respondents[*].value.address.PostCode");
+
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {
+    };
+
+    private static final TypeReference<List<CollectionEntry<Party>>> RESPONDENTS_TYPE = new TypeReference<>() {
+    };
+
+    private static final TypeReference<List<Map<String, Object>>> ENTRIES_TYPE = new TypeReference<>() {
+    };
+
+    @Param({"1", "10"})
+    private int partiesPerCase;
+
+    private ObjectMapper objectMapper;
+    private List<CaseDetails> cases;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        objectMapper = SyntheticCaseData.objectMapper();
+        cases = new SyntheticCaseData(42L).cases(CASES, partiesPerCase);
+    }
+
+    @Benchmark
+    public Map<String, Object> copyOnWrite() {
+        CaseData data = CaseData.of(nextCase().getData());
+        data.update(POSTCODES, postcode -> postcode instanceof String value ? value.toUpperCase(Locale.UK) : postcode);
+        return data.toMap();
+    }
+
+    @Benchmark
+    public Map<String, Object> copyOnWriteUnchanged() {
+        CaseData data = CaseData.of(nextCase().getData());
+        data.update(POSTCODES, postcode -> postcode instanceof String value ? value.strip() : postcode);
+        return data.toMap();
+    }
+
+    @Benchmark
+    public long fingerprint() {
+        return CaseDataFingerprint.of(nextCase().getData());
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> deepCopy() {
+        Map<String, Object> data = objectMapper.convertValue(nextCase().getData(), MAP_TYPE);
+        for (Object respondent : (List<Object>) data.get("respondents")) {
+            upperCasePostcode(respondent);
+        }
+        return data;
+    }
+
+    @Benchmark
+    public Map<String, Object> domainObjects() {
+        Map<String, Object> data = objectMapper.convertValue(nextCase().getData(), MAP_TYPE);
+        List<CollectionEntry<Party>> respondents = objectMapper.convertValue(data.get("respondents"),
+                                                                             RESPONDENTS_TYPE);
+        List<Map<String, Object>> entries = objectMapper.convertValue(respondents, ENTRIES_TYPE);
+        for (Map<String, Object> entry : entries) {
+            upperCasePostcode(entry);
+        }
+        data.put("respondents", entries);
+        return data;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void upperCasePostcode(Object respondent) {
+        Map<String, Object> value = (Map<String, Object>) ((Map<String, Object>) respondent).get("value");
+        Map<String, Object> address = (Map<String, Object>) value.get("address");
+        address.put("PostCode", ((String) address.get("PostCode")).toUpperCase(Locale.UK));
+    }
+
+    private CaseDetails nextCase() {
+        next = (next + 1) % CASES;
+        return cases.get(next);
+    }
+}
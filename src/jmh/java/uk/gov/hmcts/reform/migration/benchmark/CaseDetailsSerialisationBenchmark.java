@@ -0,0 +1,54 @@
+package uk.gov.hmcts.reform.migration.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.gov.hmcts.reform.ccd.client.model.CaseDetails;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson round trip of a CCD case whose data holds party, address and collection structures.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CaseDetailsSerialisationBenchmark {
+
+    @Param({"1", "10", "50"})
+    private int partiesPerCase;
+
+    private ObjectMapper objectMapper;
+    private CaseDetails caseDetails;
+    private String json;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        objectMapper = SyntheticCaseData.objectMapper();
+        caseDetails = new SyntheticCaseData(42L).caseDetails(1_600_000_000_000_001L, partiesPerCase);
+        json = objectMapper.writeValueAsString(caseDetails);
+    }
+
+    @Benchmark
+    public String serialise() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(caseDetails);
+    }
+
+    @Benchmark
+    public CaseDetails deserialise() throws JsonProcessingException {
+        return objectMapper.readValue(json, CaseDetails.class);
+    }
+}
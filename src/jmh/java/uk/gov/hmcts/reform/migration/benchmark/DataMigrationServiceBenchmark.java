@@ -0,0 +1,81 @@
+package uk.gov.hmcts.reform.migration.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import uk.gov.hmcts.reform.ccd.client.model.CaseDetails;
+import uk.gov.hmcts.reform.migration.service.DataMigrationService;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Runs a {@link DataMigrationService} over synthetic cases. The implementation is chosen with the
+ * {@code migrationService} parameter and must have a no-argument constructor.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DataMigrationServiceBenchmark {
+
+    private static final int CASES = 100;
+
+    @Param("uk.gov.hmcts.reform.migration.service.DataMigrationServiceImpl")
+    private String migrationService;
+
+    @Param({"1", "10"})
+    private int partiesPerCase;
+
+    private DataMigrationService<?> service;
+    private Predicate<CaseDetails> accepts;
+    private List<CaseDetails> cases;
+    private int next;
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        service = (DataMigrationService<?>) Class.forName(migrationService).getDeclaredConstructor().newInstance();
+        accepts = service.accepts();
+        cases = new SyntheticCaseData(42L).cases(CASES, partiesPerCase);
+    }
+
+    @Benchmark
+    public boolean accepts() {
+        return accepts.test(nextCase());
+    }
+
+    @Benchmark
+    public Object migrate() {
+        // migrations may mutate the map they are given, so each invocation works on a fresh copy
+        return service.migrate(new HashMap<>(nextCase().getData()));
+    }
+
+    @Benchmark
+    public void acceptsAndMigrateAll(Blackhole blackhole) {
+        for (CaseDetails caseDetails : cases) {
+            if (accepts.test(caseDetails)) {
+                Map<String, Object> data = new HashMap<>(caseDetails.getData());
+                blackhole.consume(service.migrate(data));
+            }
+        }
+    }
+
+    private CaseDetails nextCase() {
+        next = (next + 1) % CASES;
+        return cases.get(next);
+    }
+}
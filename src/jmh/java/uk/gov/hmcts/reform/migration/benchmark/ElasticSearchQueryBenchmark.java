@@ -0,0 +1,56 @@
+package uk.gov.hmcts.reform.migration.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.gov.hmcts.reform.migration.query.ElasticSearchQuery;
+import uk.gov.hmcts.reform.migration.query.ReferenceRange;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ElasticSearchQueryBenchmark {
+
+    private final ReferenceRange range = ReferenceRange.forShard(1, 4,
+        1_690_000_000_000_000L, 1_760_000_000_000_000L);
+
+    @Benchmark
+    public String initialQuery() {
+        return ElasticSearchQuery.builder()
+            .size(100)
+            .initialSearch(true)
+            .build()
+            .getQuery();
+    }
+
+    @Benchmark
+    public String searchAfterQuery() {
+        return ElasticSearchQuery.builder()
+            .size(100)
+            .searchAfterValue("1600000000000042")
+            .initialSearch(false)
+            .build()
+            .getQuery();
+    }
+
+    @Benchmark
+    public String rangeQuery() {
+        return ElasticSearchQuery.builder()
+            .size(100)
+            .searchAfterValue("1600000000000042")
+            .referenceRange(range)
+            .build()
+            .getQuery();
+    }
+}
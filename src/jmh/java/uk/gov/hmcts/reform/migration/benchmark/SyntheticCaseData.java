@@ -0,0 +1,126 @@
+package uk.gov.hmcts.reform.migration.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import uk.gov.hmcts.reform.ccd.client.model.CaseDetails;
+import uk.gov.hmcts.reform.ccd.client.model.Classification;
+import uk.gov.hmcts.reform.domain.common.Address;
+import uk.gov.hmcts.reform.domain.common.CollectionEntry;
+import uk.gov.hmcts.reform.domain.common.EmailAddress;
+import uk.gov.hmcts.reform.domain.common.Party;
+import uk.gov.hmcts.reform.domain.common.TelephoneNumber;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Builds reproducible case payloads shaped like real CCD data for the benchmarks.
+ */
+public final class SyntheticCaseData {
+
+    public static final String CASE_TYPE = "Benchmark_Case";
+    public static final String JURISDICTION = "BENCHMARK";
+
+    private static final long FIRST_REFERENCE = 1_600_000_000_000_000L;
+
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {
+    };
+
+    private static final String[] FIRST_NAMES = {"Alex", "Sam", "Jo", "Chris", "Pat", "Robin", "Charlie", "Jamie"};
+    private static final String[] LAST_NAMES = {"Smith", "Jones", "Taylor", "Brown", "Williams", "Wilson", "Evans"};
+    private static final String[] TOWNS = {"London", "Manchester", "Cardiff", "Birmingham", "Leeds", "Bristol"};
+
+    private final ObjectMapper objectMapper;
+    private final Random random;
+
+    public SyntheticCaseData(long seed) {
+        this.objectMapper = objectMapper();
+        this.random = new Random(seed);
+    }
+
+    public static ObjectMapper objectMapper() {
+        return new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    public List<CaseDetails> cases(int count, int partiesPerCase) {
+        List<CaseDetails> cases = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            cases.add(caseDetails(FIRST_REFERENCE + i, partiesPerCase));
+        }
+        return cases;
+    }
+
+    public CaseDetails caseDetails(long reference, int partiesPerCase) {
+        LocalDateTime created = LocalDateTime.of(2020, 1, 1, 9, 0).plusMinutes(reference % 100_000);
+        return CaseDetails.builder()
+            .id(reference)
+            .jurisdiction(JURISDICTION)
+            .caseTypeId(CASE_TYPE)
+            .state("Submitted")
+            .createdDate(created)
+            .lastModified(created.plusDays(7))
+            .securityClassification(Classification.PUBLIC)
+            .data(data(partiesPerCase))
+            .build();
+    }
+
+    public Map<String, Object> data(int partiesPerCase) {
+        List<Map<String, Object>> respondents = new ArrayList<>(partiesPerCase);
+        for (int i = 0; i < partiesPerCase; i++) {
+            CollectionEntry<Party> entry = CollectionEntry.<Party>builder()
+                .id(UUID.nameUUIDFromBytes(new byte[] {(byte) random.nextInt(), (byte) i}).toString())
+                .value(party())
+                .build();
+            respondents.add(objectMapper.convertValue(entry, MAP_TYPE));
+        }
+
+        Map<String, Object> data = new HashMap<>();
+        data.put("caseName", pick(LAST_NAMES) + " v " + pick(LAST_NAMES));
+        data.put("dateSubmitted", "2020-01-01");
+        data.put("applicant", objectMapper.convertValue(party(), MAP_TYPE));
+        data.put("respondents", respondents);
+        data.put("caseLocalAuthority", "SA");
+        data.put("orderDirectionType", List.of("standard", "urgent"));
+        return data;
+    }
+
+    private Party party() {
+        String firstName = pick(FIRST_NAMES);
+        String lastName = pick(LAST_NAMES);
+        return Party.builder()
+            .partyID(UUID.nameUUIDFromBytes(new byte[] {(byte) random.nextInt()}).toString())
+            .partyType("Individual")
+            .title("Mx")
+            .firstName(firstName)
+            .lastName(lastName)
+            .dateOfBirth("19" + (50 + random.nextInt(50)) + "-0" + (1 + random.nextInt(9)) + "-1" + random.nextInt(10))
+            .address(Address.builder()
+                .addressLine1(random.nextInt(200) + " High Street")
+                .postTown(pick(TOWNS))
+                .postcode("SW1 " + random.nextInt(10) + "AA")
+                .country("United Kingdom")
+                .build())
+            .email(EmailAddress.builder()
+                .email(firstName.toLowerCase() + "." + lastName.toLowerCase() + "@example.com")
+                .emailUsageType("Personal")
+                .build())
+            .telephoneNumber(TelephoneNumber.builder()
+                .phoneNumber("07700 900" + String.format("%03d", random.nextInt(1000)))
+                .phoneUsageType("Mobile")
+                .build())
+            .build();
+    }
+
+    private String pick(String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
@@ -5,4 +5,8 @@ public class CaseMigrationException extends RuntimeException {
     public CaseMigrationException(String message) {
         super(message);
     }
+
+    public CaseMigrationException(String message, Throwable cause) {
+        super(message, cause);
+    }
 }
@@ -1,5 +1,6 @@
 package uk.gov.hmcts.reform.migration;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -7,15 +8,48 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import uk.gov.hmcts.reform.ccd.client.model.CaseDetails;
+import uk.gov.hmcts.reform.ccd.client.model.StartEventResponse;
 import uk.gov.hmcts.reform.domain.exception.CaseMigrationException;
+import uk.gov.hmcts.reform.migration.auth.IdamUserCache;
 import uk.gov.hmcts.reform.migration.ccd.CoreCaseDataService;
+import uk.gov.hmcts.reform.migration.checkpoint.CheckpointStore;
+import uk.gov.hmcts.reform.migration.checkpoint.CheckpointTracker;
+import uk.gov.hmcts.reform.migration.dryrun.CaseDataDiff;
+import uk.gov.hmcts.reform.migration.dryrun.DryRunReport;
+import uk.gov.hmcts.reform.migration.metrics.MigrationMetrics;
+import uk.gov.hmcts.reform.migration.processing.BoundedExecutor;
+import uk.gov.hmcts.reform.migration.processing.CaseReferenceSet;
+import uk.gov.hmcts.reform.migration.processing.CaseUpdatePipeline;
 import uk.gov.hmcts.reform.migration.repository.ElasticSearchRepository;
-import uk.gov.hmcts.reform.migration.repository.IdamRepository;
+import uk.gov.hmcts.reform.migration.result.CaseIdList;
+import uk.gov.hmcts.reform.migration.result.CaseOutcome;
+import uk.gov.hmcts.reform.migration.result.OutcomeJournal;
+import uk.gov.hmcts.reform.migration.result.OutcomeJournalWriter;
 import uk.gov.hmcts.reform.migration.service.DataMigrationService;
+import uk.gov.hmcts.reform.migration.source.CaseDetailsSource;
+import uk.gov.hmcts.reform.migration.source.CaseIdsFileSource;
+import uk.gov.hmcts.reform.migration.source.CaseReferenceSource;
+import uk.gov.hmcts.reform.migration.source.CaseSource;
+import uk.gov.hmcts.reform.migration.source.ElasticSearchCaseSource;
+import uk.gov.hmcts.reform.migration.source.ElasticSearchReferenceSource;
+import uk.gov.hmcts.reform.migration.source.ExportedCaseSource;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
 @Slf4j
 @Component
@@ -24,6 +58,8 @@ public class CaseMigrationProcessor {
     private static final String EVENT_SUMMARY = "Migrate Case";
     private static final String EVENT_DESCRIPTION = "Migrate Case";
     public static final String LOG_STRING = "-----------------------------------------";
+    private static final int LOGGED_CASES_LIMIT = 100;
+    private static final int MAX_PRESIZED_REFERENCES = 1 << 20;
 
     @Autowired
     private CoreCaseDataService coreCaseDataService;
@@ -35,29 +71,206 @@ public class CaseMigrationProcessor {
     private ElasticSearchRepository elasticSearchRepository;
 
     @Autowired
-    private IdamRepository idamRepository;
+    private IdamUserCache idamUserCache;
 
-    @Getter
-    private List<Long> migratedCases = new ArrayList<>();
+    @Autowired
+    private CheckpointStore checkpointStore;
+
+    @Autowired
+    private MigrationMetrics migrationMetrics;
+
+    @Autowired
+    private OutcomeJournal outcomeJournal;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private List<MigrationRun> lastRuns = List.of();
 
     @Getter
-    private List<Long> failedCases = new ArrayList<>();
+    private DryRunReport dryRunReport;
+
+    @Value("${case-migration.results.dir:}")
+    private String resultsDir;
 
     @Value("${case-migration.processing.limit}")
     private int caseProcessLimit;
 
-    public void migrateCases(String caseType) {
-        validateCaseType(caseType);
-        log.info("Data migration of cases started for case type: {}", caseType);
-        String userToken =  idamRepository.generateUserToken();
-        List<CaseDetails> listOfCaseDetails = elasticSearchRepository.findCaseByCaseType(userToken, caseType);
-        listOfCaseDetails.stream()
-            .limit(caseProcessLimit)
-            .forEach(caseDetails -> updateCase(userToken, caseType, caseDetails));
+    @Value("${case-migration.processing.concurrency:1}")
+    private int concurrency;
+
+    @Value("${case-migration.processing.queueCapacity:100}")
+    private int queueCapacity;
+
+    @Value("${case-migration.processing.deduplicate:true}")
+    private boolean deduplicate;
+
+    @Value("${case-migration.dryRun:false}")
+    private boolean dryRun;
+
+    @Value("${case-migration.elasticsearch.idOnly:false}")
+    private boolean idOnly;
+
+    @Value("${migration.jurisdiction:}")
+    private String jurisdiction;
+
+    @Value("${migration.caseIdsFile:}")
+    private String caseIdsFile;
+
+    @Value("${case-migration.source.file:}")
+    private String sourceFile;
+
+    @Value("${case-migration.source.format:}")
+    private String sourceFormat;
+
+    @Value("${case-migration.pipeline.enabled:false}")
+    private boolean pipelineEnabled;
+
+    @Value("${case-migration.pipeline.startConcurrency:8}")
+    private int pipelineStartConcurrency;
+
+    @Value("${case-migration.pipeline.transformConcurrency:2}")
+    private int pipelineTransformConcurrency;
+
+    @Value("${case-migration.pipeline.submitConcurrency:8}")
+    private int pipelineSubmitConcurrency;
+
+    @Value("${case-migration.pipeline.reportIntervalSeconds:60}")
+    private long pipelineReportIntervalSeconds;
+
+    /**
+     * Migrates one case type, or several given as a comma separated list. Several case types share the update
+     * threads (or pipeline), the CCD rate limit and the authenticated user, and are searched concurrently when
+     * cases are updated in parallel, taking turns for free update slots. Each case type gets its own summary.
+     */
+    public void migrateCases(String caseTypes) {
+        List<String> types = parseCaseTypes(caseTypes);
+        log.info("Data migration of cases started for case types: {}", types);
+        String userToken = idamUserCache.getUserToken();
+        migrationMetrics.runStarted();
+        dryRunReport = dryRun ? new DryRunReport() : null;
+        if (dryRun) {
+            log.info("Dry run: cases are migrated in memory and compared, nothing is submitted to CCD");
+        }
+
+        // a case IDs file run retries cases the checkpoint already holds as done, and is tracked by its journal
+        boolean checkpointed = !dryRun && !StringUtils.hasText(caseIdsFile);
+        if (!dryRun && !checkpointed) {
+            log.info("Migrating cases of a case IDs file: the checkpoint is neither read nor written");
+        }
+
+        List<MigrationRun> runs = new ArrayList<>();
+        lastRuns = runs;
+        Map<String, RuntimeException> failures = Collections.synchronizedMap(new LinkedHashMap<>());
+        try (CaseSource caseSource = openCaseSource(types.size() > 1);
+             OutcomeJournalWriter journal = outcomeJournal.open()) {
+            try {
+                for (String caseType : types) {
+                    CheckpointTracker checkpoint = checkpointed
+                        ? checkpointStore.open(caseType, caseSource.isOrdered())
+                        : CheckpointTracker.disabled();
+                    runs.add(new MigrationRun(caseType, checkpoint, journal, dryRunReport,
+                                              new CaseIdList(), new CaseIdList(), seenCases()));
+                }
+                migrateCaseTypes(userToken, caseSource, runs, failures);
+            } finally {
+                runs.forEach(run -> run.checkpoint().close());
+            }
+        }
+
+        runs.forEach(this::logSummary);
+        if (runs.size() > 1) {
+            int migrated = runs.stream().mapToInt(run -> run.migratedCases().size()).sum();
+            int failed = runs.stream().mapToInt(run -> run.failedCases().size()).sum();
+            log.info("Data migration completed for {} case types: {} cases processed, {} migrated, {} failed",
+                     runs.size(), migrated + failed, migrated, failed);
+        }
+        if (dryRunReport != null) {
+            long evaluated = dryRunReport.getAcceptedCount() + dryRunReport.getRejectedCount();
+            dryRunReport.log(Math.max(migrationMetrics.getExpectedCases(), evaluated),
+                             pipelineEnabled ? pipelineSubmitConcurrency : concurrency,
+                             migrationMetrics.getMeanStartEventNanos());
+        }
+        migrationMetrics.writeReport();
+
+        if (!failures.isEmpty()) {
+            RuntimeException failure = failures.values().iterator().next();
+            throw types.size() == 1
+                ? failure
+                : new CaseMigrationException("Data migration stopped early for case types " + failures.keySet(),
+                                             failure);
+        }
+        log.info("Data migration of cases completed");
+    }
+
+    /**
+     * The cases migrated by the last migration, across its case types. Each case type keeps its own list, which
+     * this copies, so a case is only held once while the migration runs.
+     */
+    public CaseIdList getMigratedCases() {
+        return combined(MigrationRun::migratedCases);
+    }
+
+    /**
+     * The cases that failed in the last migration, across its case types.
+     */
+    public CaseIdList getFailedCases() {
+        return combined(MigrationRun::failedCases);
+    }
+
+    private CaseIdList combined(Function<MigrationRun, CaseIdList> cases) {
+        CaseIdList combined = new CaseIdList();
+        lastRuns.forEach(run -> cases.apply(run).stream().forEach(combined::add));
+        return combined;
+    }
+
+    /**
+     * Runs each case type's search on its own virtual thread when updates run in parallel, otherwise one case type
+     * after the other. A case type whose search fails is recorded and does not stop the others.
+     */
+    private void migrateCaseTypes(String userToken,
+                                  CaseSource caseSource,
+                                  List<MigrationRun> runs,
+                                  Map<String, RuntimeException> failures) {
+        try (BoundedExecutor executor = pipelineEnabled ? null : new BoundedExecutor(concurrency, queueCapacity);
+             CaseUpdatePipeline pipeline = pipelineEnabled ? createPipeline() : null) {
+            if (runs.size() > 1 && (pipelineEnabled || concurrency > 1)) {
+                try (ExecutorService searches = Executors.newThreadPerTaskExecutor(
+                    Thread.ofVirtual().name("case-migration-search-", 0).factory())) {
+                    runs.forEach(run -> searches.execute(
+                        () -> migrateCaseType(userToken, caseSource, run, executor, pipeline, failures)));
+                }
+            } else {
+                runs.forEach(run -> migrateCaseType(userToken, caseSource, run, executor, pipeline, failures));
+            }
+        }
+    }
+
+    private void migrateCaseType(String userToken,
+                                 CaseSource caseSource,
+                                 MigrationRun run,
+                                 BoundedExecutor executor,
+                                 CaseUpdatePipeline pipeline,
+                                 Map<String, RuntimeException> failures) {
+        try {
+            String searchAfter = run.checkpoint().getSearchAfter();
+            switch (caseSource) {
+                case CaseReferenceSource source -> migrateReferences(
+                    source.references(userToken, run.caseType(), searchAfter), run, executor, pipeline);
+                case CaseDetailsSource source -> migrateCaseDetails(
+                    source.cases(userToken, run.caseType(), searchAfter), run, executor, pipeline);
+            }
+        } catch (RuntimeException e) {
+            log.error("Data migration of case type {} stopped: {}", run.caseType(), e.getMessage(), e);
+            failures.put(run.caseType(), e);
+        }
+    }
+
+    private void logSummary(MigrationRun run) {
         log.info(
             """
                 {}
-                Data migration completed
+                Data migration completed for case type {}
                 {}
                 Total number of processed cases:
                 {}
@@ -66,59 +279,401 @@ public class CaseMigrationProcessor {
                 {}
                 """,
             LOG_STRING,
+            run.caseType(),
             LOG_STRING,
-            getMigratedCases().size() + getFailedCases().size(),
-            getMigratedCases().size(),
+            run.migratedCases().size() + run.failedCases().size(),
+            run.migratedCases().size(),
             LOG_STRING
         );
 
-        if (getMigratedCases().isEmpty()) {
-            log.info("Migrated cases: NONE ");
+        if (run.migratedCases().isEmpty()) {
+            log.info("Migrated {} cases: NONE ", run.caseType());
         } else {
-            log.info("Migrated cases: {} ", getMigratedCases());
+            log.info("Migrated {} cases: {} ", run.caseType(), run.migratedCases().toString(LOGGED_CASES_LIMIT));
         }
 
-        if (getFailedCases().isEmpty()) {
-            log.info("Failed cases: NONE ");
+        if (run.failedCases().isEmpty()) {
+            log.info("Failed {} cases: NONE ", run.caseType());
         } else {
-            log.info("Failed cases: {} ", getFailedCases());
+            log.info("Failed {} cases: {} ", run.caseType(), run.failedCases().toString(LOGGED_CASES_LIMIT));
         }
-        log.info("Data migration of cases completed");
+        if (run.seenCases() != null && run.seenCases().getDuplicates() > 0) {
+            log.info("Skipped {} {} cases returned more than once", run.seenCases().getDuplicates(), run.caseType());
+        }
+        writeResults(run);
+    }
+
+    private void migrateCaseDetails(Stream<CaseDetails> caseDetailsStream,
+                                    MigrationRun run,
+                                    BoundedExecutor executor,
+                                    CaseUpdatePipeline pipeline) {
+        CheckpointTracker checkpoint = run.checkpoint();
+        try (Stream<CaseDetails> cases = caseDetailsStream) {
+            cases
+                .filter(caseDetails -> !checkpoint.isCompleted(caseDetails.getId()))
+                .filter(caseDetails -> firstSeen(run, caseDetails.getId()))
+                .limit(caseProcessLimit)
+                .forEach(caseDetails -> {
+                    checkpoint.caseStarted(caseDetails.getId());
+                    if (pipeline == null) {
+                        executor.execute(() -> updateCase(run, caseDetails));
+                    } else {
+                        submitToPipeline(pipeline, run, caseDetails);
+                    }
+                });
+        }
+    }
+
+    /**
+     * Migrates bare case references, from an ID-only search, a case IDs file or an export without case data. The
+     * accepts check runs against the case data returned by the start event, so nothing is submitted for a case the
+     * migration does not accept.
+     */
+    private void migrateReferences(LongStream caseReferences,
+                                   MigrationRun run,
+                                   BoundedExecutor executor,
+                                   CaseUpdatePipeline pipeline) {
+        CheckpointTracker checkpoint = run.checkpoint();
+        try (LongStream references = caseReferences) {
+            references
+                .filter(id -> !checkpoint.isCompleted(id))
+                .filter(id -> firstSeen(run, id))
+                .limit(caseProcessLimit)
+                .forEach(id -> {
+                    checkpoint.caseStarted(id);
+                    if (pipeline == null) {
+                        executor.execute(() -> updateCaseById(run, id));
+                    } else {
+                        submitReferenceToPipeline(pipeline, run, id);
+                    }
+                });
+        }
+    }
+
+    /**
+     * Remembers the references a case type's cases come with, sized for the processing limit, which is the most
+     * it can hold since duplicates are dropped before the limit is applied.
+     */
+    private CaseReferenceSet seenCases() {
+        return deduplicate ? new CaseReferenceSet(Math.min(caseProcessLimit, MAX_PRESIZED_REFERENCES)) : null;
+    }
+
+    /**
+     * Whether this is the first time the case comes up in the run. The search pages on the case reference while
+     * cases are being changed, so the same case can be returned twice; the second time it is skipped and counted.
+     */
+    private boolean firstSeen(MigrationRun run, long id) {
+        if (run.seenCases() == null || run.seenCases().add(id)) {
+            return true;
+        }
+        log.warn("Case {} of case type {} returned again, not updated twice", id, run.caseType());
+        migrationMetrics.caseDuplicate();
+        return false;
     }
 
-    private void validateCaseType(String caseType) {
-        if (!StringUtils.hasText(caseType)) {
+    /**
+     * The configured case source: a case IDs file to retry, an exported case list, or the case type search.
+     */
+    private CaseSource openCaseSource(boolean severalCaseTypes) {
+        CaseSource caseSource;
+        if (StringUtils.hasText(caseIdsFile)) {
+            caseSource = new CaseIdsFileSource(Path.of(caseIdsFile.trim()), outcomeJournal, migrationMetrics,
+                                               caseProcessLimit);
+        } else if (StringUtils.hasText(sourceFile)) {
+            caseSource = ExportedCaseSource.open(sourceFile.trim(), sourceFormat, objectMapper, jurisdiction,
+                                                 severalCaseTypes);
+        } else {
+            caseSource = idOnly
+                ? new ElasticSearchReferenceSource(elasticSearchRepository)
+                : new ElasticSearchCaseSource(elasticSearchRepository);
+        }
+
+        if (caseSource instanceof CaseReferenceSource && !StringUtils.hasText(jurisdiction)) {
+            caseSource.close();
+            throw new CaseMigrationException("Provide the jurisdiction for a migration of bare case references");
+        }
+        return caseSource;
+    }
+
+    private void writeResults(MigrationRun run) {
+        if (!StringUtils.hasText(resultsDir)) {
+            return;
+        }
+
+        Path dir = Path.of(resultsDir.trim());
+        try {
+            Files.createDirectories(dir);
+            Path migrated = dir.resolve(run.caseType() + "-migrated.txt");
+            Path failed = dir.resolve(run.caseType() + "-failed.txt");
+            run.migratedCases().writeTo(migrated);
+            run.failedCases().writeTo(failed);
+            log.info("Migrated case references written to {}, failed case references written to {}", migrated, failed);
+        } catch (IOException e) {
+            log.error("Unable to write migration results to {}", dir, e);
+        }
+    }
+
+    private List<String> parseCaseTypes(String caseTypes) {
+        List<String> types = caseTypes == null ? List.of() : Arrays.stream(caseTypes.split(","))
+            .map(String::trim)
+            .filter(StringUtils::hasText)
+            .distinct()
+            .toList();
+        if (types.isEmpty()) {
             throw new CaseMigrationException("Provide case type for the migration");
         }
 
-        if (caseType.split(",").length > 1) {
-            throw new CaseMigrationException("Only One case type at a time is allowed for the migration");
+        if ((idOnly || StringUtils.hasText(caseIdsFile)) && !StringUtils.hasText(jurisdiction)) {
+            throw new CaseMigrationException("Provide the jurisdiction for an ID-only or case IDs file migration");
+        }
+
+        if (StringUtils.hasText(caseIdsFile) && StringUtils.hasText(sourceFile)) {
+            throw new CaseMigrationException("Provide either a case IDs file or a case source file, not both");
+        }
+
+        if (types.size() > 1 && StringUtils.hasText(caseIdsFile)
+            && !CaseIdsFileSource.isJournal(Path.of(caseIdsFile.trim()))) {
+            throw new CaseMigrationException("A case IDs file without case types can only be used with one case type");
         }
+
+        if (types.size() > 1 && StringUtils.hasText(sourceFile)
+            && ExportedCaseSource.STANDARD_INPUT.equals(sourceFile.trim())) {
+            throw new CaseMigrationException("Cases read from standard input can only be migrated for one case type");
+        }
+        return types;
+    }
+
+    private CaseUpdatePipeline createPipeline() {
+        return new CaseUpdatePipeline(pipelineStartConcurrency,
+                                      pipelineTransformConcurrency,
+                                      pipelineSubmitConcurrency,
+                                      queueCapacity,
+                                      pipelineReportIntervalSeconds);
     }
 
-    private void updateCase(String authorisation, String caseType, CaseDetails caseDetails) {
-        if (dataMigrationService.accepts().test(caseDetails)) {
-            Long id = caseDetails.getId();
+    private void updateCase(MigrationRun run, CaseDetails caseDetails) {
+        long startNanos = System.nanoTime();
+        Long id = caseDetails.getId();
+        String caseJurisdiction = caseDetails.getJurisdiction();
+        if (accepts(caseDetails)) {
             log.info("Updating case {}", id);
             try {
                 log.debug("Case data: {}", caseDetails.getData());
-                coreCaseDataService.update(
-                    authorisation,
+                if (run.dryRun() != null) {
+                    CaseDataDiff diff = migrateCopy(coreCaseDataService.startEvent(
+                        idamUserCache.getUserToken(), EVENT_ID, run.caseType(), id, caseJurisdiction));
+                    caseDryRun(run, id, caseJurisdiction, startNanos, diff);
+                    return;
+                }
+                CaseDetails updatedCaseDetails = coreCaseDataService.update(
+                    idamUserCache.getUserToken(),
                     EVENT_ID,
                     EVENT_SUMMARY,
                     EVENT_DESCRIPTION,
-                    caseType,
-                    caseDetails.getId(),
-                    caseDetails.getJurisdiction()
+                    run.caseType(),
+                    id,
+                    caseJurisdiction
                 );
-                log.info("Case {} successfully updated", id);
-                migratedCases.add(id);
+                caseSubmitted(run, id, caseJurisdiction, startNanos, updatedCaseDetails);
             } catch (Exception e) {
-                log.error("Case {} update failed due to: {}", id, e.getMessage());
-                failedCases.add(id);
+                caseUpdateFailed(run, id, caseJurisdiction, startNanos, e);
             }
         } else {
-            log.info("Case {} does not meet criteria for migration", caseDetails.getId());
+            caseSkipped(run, id, caseJurisdiction, startNanos);
+        }
+    }
+
+    private void updateCaseById(MigrationRun run, long id) {
+        long startNanos = System.nanoTime();
+        try {
+            StartEventResponse startEventResponse = coreCaseDataService.startEvent(
+                idamUserCache.getUserToken(), EVENT_ID, run.caseType(), id, jurisdiction);
+            if (!accepts(startEventResponse.getCaseDetails())) {
+                caseSkipped(run, id, jurisdiction, startNanos);
+                return;
+            }
+            log.info("Updating case {}", id);
+            if (run.dryRun() != null) {
+                caseDryRun(run, id, jurisdiction, startNanos, migrateCopy(startEventResponse));
+                return;
+            }
+            CaseDetails updatedCaseDetails = coreCaseDataService.submitEvent(
+                idamUserCache.getUserToken(),
+                run.caseType(),
+                coreCaseDataService.migrate(startEventResponse, EVENT_SUMMARY, EVENT_DESCRIPTION)
+            );
+            caseSubmitted(run, id, jurisdiction, startNanos, updatedCaseDetails);
+        } catch (Exception e) {
+            caseUpdateFailed(run, id, jurisdiction, startNanos, e);
+        }
+    }
+
+    private void submitToPipeline(CaseUpdatePipeline pipeline, MigrationRun run, CaseDetails caseDetails) {
+        long startNanos = System.nanoTime();
+        Long id = caseDetails.getId();
+        String caseJurisdiction = caseDetails.getJurisdiction();
+        if (!accepts(caseDetails)) {
+            caseSkipped(run, id, caseJurisdiction, startNanos);
+            return;
+        }
+
+        log.info("Updating case {}", id);
+        Supplier<StartEventResponse> startEvent = () -> coreCaseDataService.startEvent(
+            idamUserCache.getUserToken(), EVENT_ID, run.caseType(), id, caseJurisdiction);
+        if (run.dryRun() != null) {
+            submitDryRunToPipeline(pipeline, run, id, caseJurisdiction, startNanos, startEvent, false);
+            return;
+        }
+        pipeline.submit(
+            startEvent,
+            startEventResponse -> coreCaseDataService.migrate(startEventResponse, EVENT_SUMMARY, EVENT_DESCRIPTION),
+            migrationEvent -> coreCaseDataService.submitEvent(idamUserCache.getUserToken(), run.caseType(),
+                                                              migrationEvent),
+            (updatedCaseDetails, error) -> {
+                if (error == null) {
+                    caseSubmitted(run, id, caseJurisdiction, startNanos, updatedCaseDetails);
+                } else {
+                    caseUpdateFailed(run, id, caseJurisdiction, startNanos, error);
+                }
+            }
+        );
+    }
+
+    private void submitReferenceToPipeline(CaseUpdatePipeline pipeline, MigrationRun run, long id) {
+        long startNanos = System.nanoTime();
+        Supplier<StartEventResponse> startEvent = () -> coreCaseDataService.startEvent(
+            idamUserCache.getUserToken(), EVENT_ID, run.caseType(), id, jurisdiction);
+        if (run.dryRun() != null) {
+            submitDryRunToPipeline(pipeline, run, id, jurisdiction, startNanos, startEvent, true);
+            return;
+        }
+        pipeline.submit(
+            startEvent,
+            startEventResponse -> accepts(startEventResponse.getCaseDetails())
+                ? coreCaseDataService.migrate(startEventResponse, EVENT_SUMMARY, EVENT_DESCRIPTION)
+                : null,
+            migrationEvent -> migrationEvent == null
+                ? null
+                : coreCaseDataService.submitEvent(idamUserCache.getUserToken(), run.caseType(), migrationEvent),
+            (updatedCaseDetails, error) -> {
+                if (error != null) {
+                    caseUpdateFailed(run, id, jurisdiction, startNanos, error);
+                } else if (updatedCaseDetails == null) {
+                    caseSkipped(run, id, jurisdiction, startNanos);
+                } else {
+                    caseSubmitted(run, id, jurisdiction, startNanos, updatedCaseDetails);
+                }
+            }
+        );
+    }
+
+    /**
+     * Dry-run version of the pipeline: the transform stage diffs the migrated data and the submit stage passes
+     * the diff through without calling CCD. A {@code null} diff means the case was not accepted.
+     */
+    private void submitDryRunToPipeline(CaseUpdatePipeline pipeline,
+                                        MigrationRun run,
+                                        long id,
+                                        String caseJurisdiction,
+                                        long startNanos,
+                                        Supplier<StartEventResponse> startEvent,
+                                        boolean checkAccepts) {
+        pipeline.submit(
+            startEvent,
+            startEventResponse -> !checkAccepts || accepts(startEventResponse.getCaseDetails())
+                ? migrateCopy(startEventResponse)
+                : null,
+            diff -> diff,
+            (diff, error) -> {
+                if (error != null) {
+                    caseUpdateFailed(run, id, caseJurisdiction, startNanos, error);
+                } else if (diff != null) {
+                    caseDryRun(run, id, caseJurisdiction, startNanos, diff);
+                } else {
+                    caseSkipped(run, id, caseJurisdiction, startNanos);
+                }
+            }
+        );
+    }
+
+    /**
+     * Runs the migration on the start event's case data and compares the result with a copy taken beforehand,
+     * since a migration may change the map it is given in place.
+     */
+    @SuppressWarnings("unchecked")
+    private CaseDataDiff migrateCopy(StartEventResponse startEventResponse) {
+        Map<String, Object> before = CaseDataDiff.copy(startEventResponse.getCaseDetails().getData());
+        Object after = coreCaseDataService.migrate(startEventResponse, EVENT_SUMMARY, EVENT_DESCRIPTION)
+            .caseDataContent().getData();
+        return CaseDataDiff.between(before, after instanceof Map<?, ?> map ? (Map<String, Object>) map : null);
+    }
+
+    private boolean accepts(CaseDetails caseDetails) {
+        return migrationMetrics.recordAccepts(() -> dataMigrationService.accepts().test(caseDetails));
+    }
+
+    private void caseSkipped(MigrationRun run, Long id, String caseJurisdiction, long startNanos) {
+        log.info("Case {} does not meet criteria for migration", id);
+        migrationMetrics.caseSkipped();
+        if (run.dryRun() != null) {
+            run.dryRun().caseRejected();
+        }
+        run.checkpoint().caseSkipped(id);
+        run.record(id, caseJurisdiction, CaseOutcome.Outcome.SKIPPED, null, startNanos);
+    }
+
+    private void caseSubmitted(MigrationRun run, Long id, String caseJurisdiction, long startNanos,
+                               CaseDetails updatedCaseDetails) {
+        if (updatedCaseDetails == CoreCaseDataService.UNCHANGED) {
+            caseUnchanged(run, id, caseJurisdiction, startNanos);
+        } else {
+            caseUpdated(run, id, caseJurisdiction, startNanos);
+        }
+    }
+
+    private void caseUnchanged(MigrationRun run, Long id, String caseJurisdiction, long startNanos) {
+        log.info("Case {} left unchanged by the migration, nothing submitted", id);
+        migrationMetrics.caseUnchanged();
+        run.checkpoint().caseSkipped(id);
+        run.record(id, caseJurisdiction, CaseOutcome.Outcome.UNCHANGED, null, startNanos);
+    }
+
+    private void caseUpdated(MigrationRun run, Long id, String caseJurisdiction, long startNanos) {
+        log.info("Case {} successfully updated", id);
+        run.migratedCases().add(id);
+        migrationMetrics.caseMigrated();
+        run.checkpoint().caseMigrated(id);
+        run.record(id, caseJurisdiction, CaseOutcome.Outcome.MIGRATED, null, startNanos);
+    }
+
+    private void caseDryRun(MigrationRun run, Long id, String caseJurisdiction, long startNanos, CaseDataDiff diff) {
+        log.info("Case {} dry run: {} paths added, {} removed, {} modified in {}",
+                 id, diff.added(), diff.removed(), diff.modified(), diff.changedFields());
+        migrationMetrics.caseDryRun();
+        run.dryRun().caseMigrated(diff, System.nanoTime() - startNanos);
+        run.record(id, caseJurisdiction, CaseOutcome.Outcome.DRY_RUN, null, startNanos);
+    }
+
+    private void caseUpdateFailed(MigrationRun run, Long id, String caseJurisdiction, long startNanos, Exception e) {
+        log.error("Case {} update failed due to: {}", id, e.getMessage());
+        run.failedCases().add(id);
+        migrationMetrics.caseFailed(e);
+        run.checkpoint().caseFailed(id);
+        run.record(id, caseJurisdiction, CaseOutcome.Outcome.FAILED,
+                   e.getClass().getSimpleName() + ": " + e.getMessage(), startNanos);
+    }
+
+    private record MigrationRun(String caseType,
+                                CheckpointTracker checkpoint,
+                                OutcomeJournalWriter journal,
+                                DryRunReport dryRun,
+                                CaseIdList migratedCases,
+                                CaseIdList failedCases,
+                                CaseReferenceSet seenCases) {
+
+        void record(long id, String jurisdiction, CaseOutcome.Outcome outcome, String reason, long startNanos) {
+            journal.record(new CaseOutcome(id, caseType, jurisdiction, outcome, reason,
+                                           (System.nanoTime() - startNanos) / 1_000_000, Instant.now().toString()));
         }
     }
 }
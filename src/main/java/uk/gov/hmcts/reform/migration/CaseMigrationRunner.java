@@ -11,7 +11,7 @@ import org.springframework.context.annotation.PropertySource;
 
 @Slf4j
 @SpringBootApplication
-@EnableFeignClients(basePackages = {"uk.gov.hmcts.reform.idam.client"})
+@EnableFeignClients(basePackages = {"uk.gov.hmcts.reform.idam.client", "uk.gov.hmcts.reform.migration.ccd"})
 @PropertySource("classpath:application.properties")
 public class CaseMigrationRunner implements CommandLineRunner {
 
@@ -5,24 +5,27 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Lazy;
 import uk.gov.hmcts.reform.authorisation.ServiceAuthorisationApi;
-import uk.gov.hmcts.reform.authorisation.generators.AuthTokenGenerator;
+import uk.gov.hmcts.reform.authorisation.generators.ServiceAuthTokenGenerator;
 
-import static uk.gov.hmcts.reform.authorisation.generators.AuthTokenGeneratorFactory.createDefaultGenerator;
+import java.time.Duration;
 
 @Configuration
 @Lazy
 public class AuthTokenGeneratorConfiguration {
 
     @Bean
-    public AuthTokenGenerator serviceAuthTokenGenerator(
+    public CachingAuthTokenGenerator serviceAuthTokenGenerator(
         @Value("${idam.s2s-auth.totp_secret}") final String secret,
         @Value("${idam.s2s-auth.microservice}") final String microService,
+        @Value("${idam.s2s-auth.refreshBeforeExpirySeconds:300}") final long refreshBeforeExpiry,
+        @Value("${idam.s2s-auth.defaultTokenLifetimeSeconds:3600}") final long defaultTokenLifetime,
         final ServiceAuthorisationApi serviceAuthorisationApi
     ) {
 
-        return createDefaultGenerator(secret,
-            microService,
-            serviceAuthorisationApi);
+        return new CachingAuthTokenGenerator(
+            new ServiceAuthTokenGenerator(secret, microService, serviceAuthorisationApi),
+            Duration.ofSeconds(refreshBeforeExpiry),
+            Duration.ofSeconds(defaultTokenLifetime));
     }
 
 }
@@ -1,10 +1,21 @@
 package uk.gov.hmcts.reform.migration.auth;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+
 @SuppressWarnings("squid:S1118")
 public final class AuthUtil {
 
     private static final String BEARER = "Bearer ";
 
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
     private AuthUtil() {
 
     }
@@ -16,5 +27,34 @@ public final class AuthUtil {
 
         return token.startsWith(BEARER) ? token : BEARER.concat(token);
     }
-}
 
+    public static Optional<Instant> getExpiry(String token) {
+        if (token == null || token.isBlank()) {
+            return Optional.empty();
+        }
+
+        String jwt = token.startsWith(BEARER) ? token.substring(BEARER.length()) : token;
+        String[] parts = jwt.split("\\.");
+        if (parts.length < 2) {
+            return Optional.empty();
+        }
+
+        try {
+            byte[] payload = Base64.getUrlDecoder().decode(parts[1]);
+            JsonNode exp = OBJECT_MAPPER.readTree(new String(payload, StandardCharsets.UTF_8)).get("exp");
+            return exp != null && exp.canConvertToLong()
+                ? Optional.of(Instant.ofEpochSecond(exp.asLong()))
+                : Optional.empty();
+        } catch (Exception e) {
+            return Optional.empty();
+        }
+    }
+
+    public static Instant getRefreshTime(Instant now, Instant expiresAt, Duration refreshBeforeExpiry) {
+        Instant refreshAt = expiresAt.minus(refreshBeforeExpiry);
+        if (refreshAt.isAfter(now)) {
+            return refreshAt;
+        }
+        return now.plus(Duration.between(now, expiresAt).dividedBy(2));
+    }
+}
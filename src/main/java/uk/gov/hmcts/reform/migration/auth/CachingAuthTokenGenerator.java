@@ -0,0 +1,150 @@
+package uk.gov.hmcts.reform.migration.auth;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import uk.gov.hmcts.reform.authorisation.generators.AuthTokenGenerator;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Serves the S2S token from memory and renews it on a background thread ahead of its JWT expiry,
+ * so callers only block on the S2S service when no valid token is held.
+ */
+@Slf4j
+public class CachingAuthTokenGenerator implements AuthTokenGenerator, MeterBinder, AutoCloseable {
+
+    private static final Duration RETRY_DELAY = Duration.ofSeconds(30);
+
+    private final AuthTokenGenerator delegate;
+
+    private final Duration refreshBeforeExpiry;
+
+    private final Duration defaultTokenLifetime;
+
+    private final Clock clock;
+
+    private final ScheduledExecutorService scheduler;
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    private final AtomicLong refreshes = new AtomicLong();
+
+    private volatile ServiceToken current;
+
+    private ScheduledFuture<?> scheduledRefresh;
+
+    public CachingAuthTokenGenerator(AuthTokenGenerator delegate,
+                                     Duration refreshBeforeExpiry,
+                                     Duration defaultTokenLifetime) {
+        this(delegate, refreshBeforeExpiry, defaultTokenLifetime, Clock.systemUTC(),
+             Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+                                                            .name("s2s-token-refresh")
+                                                            .daemon(true)
+                                                            .factory()));
+    }
+
+    CachingAuthTokenGenerator(AuthTokenGenerator delegate,
+                              Duration refreshBeforeExpiry,
+                              Duration defaultTokenLifetime,
+                              Clock clock,
+                              ScheduledExecutorService scheduler) {
+        this.delegate = delegate;
+        this.refreshBeforeExpiry = refreshBeforeExpiry;
+        this.defaultTokenLifetime = defaultTokenLifetime;
+        this.clock = clock;
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public String generate() {
+        ServiceToken token = current;
+        if (token != null && clock.instant().isBefore(token.expiresAt())) {
+            hits.incrementAndGet();
+            return token.value();
+        }
+        misses.incrementAndGet();
+        return refreshIfExpired().value();
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public long getRefreshCount() {
+        return refreshes.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("ccd.migration.s2s.token", hits, AtomicLong::get)
+            .description("S2S token requests by cache result").tag("result", "hit").register(registry);
+        FunctionCounter.builder("ccd.migration.s2s.token", misses, AtomicLong::get)
+            .description("S2S token requests by cache result").tag("result", "miss").register(registry);
+        FunctionCounter.builder("ccd.migration.s2s.token.refreshes", refreshes, AtomicLong::get)
+            .description("S2S tokens fetched from the S2S service").register(registry);
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    private synchronized ServiceToken refreshIfExpired() {
+        ServiceToken token = current;
+        if (token != null && clock.instant().isBefore(token.expiresAt())) {
+            return token;
+        }
+        return refresh();
+    }
+
+    private synchronized ServiceToken refresh() {
+        String value = delegate.generate();
+        Instant now = clock.instant();
+        Instant expiresAt = AuthUtil.getExpiry(value).orElse(now.plus(defaultTokenLifetime));
+        Instant refreshAt = AuthUtil.getRefreshTime(now, expiresAt, refreshBeforeExpiry);
+
+        ServiceToken refreshed = new ServiceToken(value, expiresAt);
+        current = refreshed;
+        refreshes.incrementAndGet();
+        scheduleRefresh(Duration.between(now, refreshAt));
+        log.debug("S2S token refreshed, next refresh due at {} (hits: {}, misses: {}, refreshes: {})",
+                  refreshAt, hits.get(), misses.get(), refreshes.get());
+        return refreshed;
+    }
+
+    private synchronized void scheduleRefresh(Duration delay) {
+        if (scheduledRefresh != null) {
+            scheduledRefresh.cancel(false);
+        }
+        if (!scheduler.isShutdown()) {
+            scheduledRefresh = scheduler.schedule(this::backgroundRefresh, delay.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void backgroundRefresh() {
+        try {
+            refresh();
+        } catch (Exception e) {
+            log.warn("Background S2S token refresh failed, retrying in {}: {}", RETRY_DELAY, e.getMessage());
+            scheduleRefresh(RETRY_DELAY);
+        }
+    }
+
+    private record ServiceToken(String value, Instant expiresAt) {
+    }
+}
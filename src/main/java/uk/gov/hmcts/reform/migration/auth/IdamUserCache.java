@@ -0,0 +1,91 @@
+package uk.gov.hmcts.reform.migration.auth;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import uk.gov.hmcts.reform.migration.repository.IdamRepository;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds the system update user's token for the whole run and resolves its IDAM uid once per token.
+ * The token is replaced before it expires; concurrent callers share a single refresh.
+ */
+@Component
+@Slf4j
+public class IdamUserCache {
+
+    private final IdamRepository idamRepository;
+
+    private final Duration refreshBeforeExpiry;
+
+    private final Duration defaultTokenLifetime;
+
+    private final Clock clock;
+
+    private final Map<String, String> userIds = new ConcurrentHashMap<>();
+
+    private volatile UserToken current;
+
+    @Autowired
+    public IdamUserCache(IdamRepository idamRepository,
+                         @Value("${case-migration.idam.refreshBeforeExpirySeconds:600}") long refreshBeforeExpiry,
+                         @Value("${case-migration.idam.defaultTokenLifetimeSeconds:3600}") long defaultTokenLifetime) {
+        this(idamRepository, Duration.ofSeconds(refreshBeforeExpiry), Duration.ofSeconds(defaultTokenLifetime),
+             Clock.systemUTC());
+    }
+
+    IdamUserCache(IdamRepository idamRepository,
+                  Duration refreshBeforeExpiry,
+                  Duration defaultTokenLifetime,
+                  Clock clock) {
+        this.idamRepository = idamRepository;
+        this.refreshBeforeExpiry = refreshBeforeExpiry;
+        this.defaultTokenLifetime = defaultTokenLifetime;
+        this.clock = clock;
+    }
+
+    public String getUserToken() {
+        UserToken token = current;
+        if (token == null || !clock.instant().isBefore(token.refreshAt())) {
+            token = refresh();
+        }
+        return token.bearerToken();
+    }
+
+    public String getUserId(String userToken) {
+        return userIds.computeIfAbsent(
+            AuthUtil.getBearerToken(userToken),
+            bearerToken -> idamRepository.getUserInfo(bearerToken).getUid()
+        );
+    }
+
+    private synchronized UserToken refresh() {
+        UserToken token = current;
+        Instant now = clock.instant();
+        if (token != null && now.isBefore(token.refreshAt())) {
+            return token;
+        }
+
+        String bearerToken = AuthUtil.getBearerToken(idamRepository.generateUserToken());
+        Instant expiresAt = AuthUtil.getExpiry(bearerToken).orElse(now.plus(defaultTokenLifetime));
+        Instant refreshAt = AuthUtil.getRefreshTime(now, expiresAt, refreshBeforeExpiry);
+        UserToken refreshed = new UserToken(bearerToken, refreshAt);
+        getUserId(bearerToken);
+        current = refreshed;
+
+        if (token != null) {
+            userIds.remove(token.bearerToken());
+            log.info("IDAM user token refreshed, next refresh due at {}", refreshed.refreshAt());
+        }
+        return refreshed;
+    }
+
+    private record UserToken(String bearerToken, Instant refreshAt) {
+    }
+}
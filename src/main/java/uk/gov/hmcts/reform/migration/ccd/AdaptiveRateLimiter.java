@@ -0,0 +1,200 @@
+package uk.gov.hmcts.reform.migration.ccd;
+
+import feign.FeignException;
+import feign.RetryableException;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.ConnectTimeoutException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import uk.gov.hmcts.reform.domain.exception.CaseMigrationException;
+
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.UnknownHostException;
+import java.net.http.HttpConnectTimeoutException;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Paces calls to the CCD data store and adapts the pace AIMD style: the rate grows by roughly one request per
+ * second every second while calls are fast and succeed, and is cut by the decrease factor on a throttling
+ * response or a slow call. Throttled and transient failures are retried with full-jitter exponential back-off.
+ * A target rate of zero or less disables pacing but keeps the retries. Calls that write to CCD are only retried
+ * when the request cannot have been acted on, see {@link #callWrite}.
+ */
+@Slf4j
+@Component
+public class AdaptiveRateLimiter {
+
+    private static final Set<Integer> THROTTLING_STATUSES = Set.of(429, 503);
+
+    private static final Set<Integer> TRANSIENT_STATUSES = Set.of(429, 502, 503, 504);
+
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final double maxRate;
+
+    private final double minRate;
+
+    private final double decreaseFactor;
+
+    private final long slowCallNanos;
+
+    private final int maxAttempts;
+
+    private final long initialBackoffMillis;
+
+    private final long maxBackoffMillis;
+
+    private double currentRate;
+
+    private long nextPermitNanos;
+
+    private long lastDecreaseNanos;
+
+    @Autowired
+    public AdaptiveRateLimiter(@Value("${case-migration.rate-limit.requestsPerSecond:0}") double maxRate,
+                               @Value("${case-migration.rate-limit.minRequestsPerSecond:1}") double minRate,
+                               @Value("${case-migration.rate-limit.decreaseFactor:0.5}") double decreaseFactor,
+                               @Value("${case-migration.rate-limit.slowCallMillis:5000}") long slowCallMillis,
+                               @Value("${case-migration.retry.maxAttempts:4}") int maxAttempts,
+                               @Value("${case-migration.retry.initialBackoffMillis:500}") long initialBackoffMillis,
+                               @Value("${case-migration.retry.maxBackoffMillis:30000}") long maxBackoffMillis) {
+        this.maxRate = maxRate;
+        this.minRate = Math.min(Math.max(minRate, 0.1), maxRate > 0 ? maxRate : Double.MAX_VALUE);
+        this.decreaseFactor = decreaseFactor;
+        this.slowCallNanos = TimeUnit.MILLISECONDS.toNanos(slowCallMillis);
+        this.maxAttempts = Math.max(maxAttempts, 1);
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+        this.currentRate = maxRate;
+        this.nextPermitNanos = System.nanoTime();
+        this.lastDecreaseNanos = nextPermitNanos - NANOS_PER_SECOND;
+    }
+
+    /**
+     * Paces and retries a call that is not safe to repeat, such as a submit event. A 502, a 504 or a read timeout
+     * may come after CCD has committed the event, so only refused requests (429, 503) and failures to connect
+     * are retried.
+     */
+    public <T> T callWrite(Supplier<T> request) {
+        return call(request, AdaptiveRateLimiter::isRefused);
+    }
+
+    /**
+     * Paces and retries a call that is safe to repeat, such as a search or a start event.
+     */
+    public <T> T call(Supplier<T> request) {
+        return call(request, AdaptiveRateLimiter::isTransient);
+    }
+
+    private <T> T call(Supplier<T> request, Predicate<FeignException> retryable) {
+        for (int attempt = 1; ; attempt++) {
+            acquire();
+            long start = System.nanoTime();
+            try {
+                T response = request.get();
+                onSuccess(System.nanoTime() - start);
+                return response;
+            } catch (FeignException e) {
+                boolean throttled = THROTTLING_STATUSES.contains(e.status());
+                if (throttled || System.nanoTime() - start > slowCallNanos) {
+                    decrease();
+                }
+                if (attempt >= maxAttempts || !retryable.test(e)) {
+                    throw e;
+                }
+                long backoff = backoffMillis(attempt);
+                log.warn("CCD call failed with status {}, retrying in {} ms (attempt {} of {})",
+                         e.status(), backoff, attempt, maxAttempts);
+                sleep(TimeUnit.MILLISECONDS.toNanos(backoff));
+            }
+        }
+    }
+
+    public synchronized double getCurrentRate() {
+        return currentRate;
+    }
+
+    private void acquire() {
+        if (maxRate <= 0) {
+            return;
+        }
+
+        long permitAt;
+        synchronized (this) {
+            long now = System.nanoTime();
+            permitAt = Math.max(now, nextPermitNanos);
+            nextPermitNanos = permitAt + (long) (NANOS_PER_SECOND / currentRate);
+        }
+        sleep(permitAt - System.nanoTime());
+    }
+
+    private synchronized void onSuccess(long latencyNanos) {
+        if (maxRate <= 0) {
+            return;
+        }
+        if (latencyNanos > slowCallNanos) {
+            decrease();
+        } else {
+            currentRate = Math.min(maxRate, currentRate + 1.0 / currentRate);
+        }
+    }
+
+    private synchronized void decrease() {
+        if (maxRate <= 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        // concurrent failures usually share one cause, so cut the rate at most once a second
+        if (now - lastDecreaseNanos < NANOS_PER_SECOND) {
+            return;
+        }
+        lastDecreaseNanos = now;
+        currentRate = Math.max(minRate, currentRate * decreaseFactor);
+        log.info("CCD request rate reduced to {} per second", String.format("%.2f", currentRate));
+    }
+
+    private long backoffMillis(int attempt) {
+        long ceiling = Math.min(maxBackoffMillis, initialBackoffMillis << Math.min(attempt - 1, 30));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    private static boolean isTransient(FeignException e) {
+        return e instanceof RetryableException || TRANSIENT_STATUSES.contains(e.status());
+    }
+
+    /**
+     * Whether the request was turned away or never sent, so that CCD cannot have acted on it.
+     */
+    static boolean isRefused(FeignException e) {
+        return THROTTLING_STATUSES.contains(e.status()) || e instanceof RetryableException && isConnectFailure(e);
+    }
+
+    private static boolean isConnectFailure(Throwable e) {
+        for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConnectException || cause instanceof UnknownHostException
+                || cause instanceof NoRouteToHostException || cause instanceof HttpConnectTimeoutException
+                || cause instanceof ConnectTimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void sleep(long nanos) {
+        if (nanos <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CaseMigrationException("Interrupted while waiting to call CCD", e);
+        }
+    }
+}
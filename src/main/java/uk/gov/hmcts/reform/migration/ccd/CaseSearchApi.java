@@ -0,0 +1,26 @@
+package uk.gov.hmcts.reform.migration.ccd;
+
+import feign.Response;
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import static org.springframework.http.HttpHeaders.AUTHORIZATION;
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+import static uk.gov.hmcts.reform.ccd.client.CoreCaseDataApi.SERVICE_AUTHORIZATION;
+
+/**
+ * The CCD search endpoint returning the raw response, so that large result pages can be read with a streaming
+ * parser instead of being bound to {@code CaseDetails}.
+ */
+@FeignClient(name = "ccd-case-search-api", url = "${core_case_data.api.url}")
+public interface CaseSearchApi {
+
+    @PostMapping(value = "/searchCases", consumes = APPLICATION_JSON_VALUE)
+    Response searchCases(@RequestHeader(AUTHORIZATION) String authorisation,
+                         @RequestHeader(SERVICE_AUTHORIZATION) String serviceAuthorization,
+                         @RequestParam("ctid") String caseType,
+                         @RequestBody String searchString);
+}
@@ -0,0 +1,361 @@
+package uk.gov.hmcts.reform.migration.ccd;
+
+import feign.FeignException;
+import feign.RetryableException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import uk.gov.hmcts.reform.domain.exception.CaseMigrationException;
+import uk.gov.hmcts.reform.migration.metrics.MigrationMetrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Stops calling the CCD data store while it is failing. Outcomes of the last {@code windowSize} calls are kept, and
+ * once at least {@code minimumCalls} are in, the breaker opens when the share of failed calls (5xx, 429 or no
+ * response at all) or of slow calls reaches its threshold. While it is open every caller waits, which pauses the
+ * update threads and, through their bounded queue, the search. After {@code openMillis} it lets
+ * {@code probeCalls} calls through: if they all succeed it closes, otherwise it opens again. A call failing while
+ * the breaker is not closed is made again once it lets calls through, up to {@code maxRequeues} times, so the cases
+ * caught by an outage are retried rather than failed. A call that is safe to repeat, such as a start event, is made
+ * again after any failure counted against CCD. A write is only made again when CCD refused it (429 or 503) or it
+ * could not connect; after other failures, such as a timeout, CCD may already have acted on it.
+ *
+ * <p>A call is wrapped in two places: {@link #call} or {@link #callWrite} around everything that times or paces
+ * it, where callers wait, and {@link #attempt} around each request to CCD, whose outcome and latency are recorded.
+ * Time spent waiting is then never taken for CCD latency, neither by the rate limiter nor by the call timers.
+ */
+@Slf4j
+@Component
+public class CircuitBreaker {
+
+    private static final byte FAILED = 1;
+
+    private static final byte SLOW = 2;
+
+    private static final long NOT_A_PROBE = -1;
+
+    private static final long NOT_PERMITTED = -2;
+
+    enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final MigrationMetrics migrationMetrics;
+
+    private final boolean enabled;
+
+    private final int minimumCalls;
+
+    private final int failureRatePercent;
+
+    private final long slowCallNanos;
+
+    private final int slowCallRatePercent;
+
+    private final long openNanos;
+
+    private final int probeCalls;
+
+    private final int maxRequeues;
+
+    private final byte[] outcomes;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition permitted = lock.newCondition();
+
+    private State state = State.CLOSED;
+
+    private int calls;
+
+    private int next;
+
+    private int failures;
+
+    private int slowCalls;
+
+    private long openUntilNanos;
+
+    private long halfOpenCycle;
+
+    private int probesStarted;
+
+    private int probesSucceeded;
+
+    @Autowired
+    public CircuitBreaker(MigrationMetrics migrationMetrics,
+                          @Value("${case-migration.circuit-breaker.enabled:true}") boolean enabled,
+                          @Value("${case-migration.circuit-breaker.windowSize:50}") int windowSize,
+                          @Value("${case-migration.circuit-breaker.minimumCalls:20}") int minimumCalls,
+                          @Value("${case-migration.circuit-breaker.failureRatePercent:50}") int failureRatePercent,
+                          @Value("${case-migration.circuit-breaker.slowCallMillis:10000}") long slowCallMillis,
+                          @Value("${case-migration.circuit-breaker.slowCallRatePercent:80}") int slowCallRatePercent,
+                          @Value("${case-migration.circuit-breaker.openMillis:30000}") long openMillis,
+                          @Value("${case-migration.circuit-breaker.probeCalls:3}") int probeCalls,
+                          @Value("${case-migration.circuit-breaker.maxRequeues:3}") int maxRequeues) {
+        this.migrationMetrics = migrationMetrics;
+        this.enabled = enabled;
+        this.outcomes = new byte[Math.max(windowSize, 1)];
+        this.minimumCalls = Math.min(Math.max(minimumCalls, 1), outcomes.length);
+        this.failureRatePercent = failureRatePercent;
+        this.slowCallNanos = TimeUnit.MILLISECONDS.toNanos(slowCallMillis);
+        this.slowCallRatePercent = slowCallRatePercent;
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMillis);
+        this.probeCalls = Math.max(probeCalls, 1);
+        this.maxRequeues = Math.max(maxRequeues, 0);
+    }
+
+    /**
+     * Runs a write whose requests to CCD go through {@link #attempt}, requeued only when CCD cannot have acted on it.
+     */
+    public <T> T callWrite(Supplier<T> request) {
+        return call(request, CircuitBreaker::isRefused);
+    }
+
+    /**
+     * Runs a call that is safe to repeat, whose requests to CCD go through {@link #attempt}, requeued after any
+     * failure counted against CCD.
+     */
+    public <T> T call(Supplier<T> request) {
+        return call(request, CircuitBreaker::isOutage);
+    }
+
+    /**
+     * Waits while the breaker is open before running the call. The call is run again when the breaker opened before
+     * its request was made, and requeued as described above when it fails in a way the policy allows.
+     */
+    private <T> T call(Supplier<T> request, Predicate<RuntimeException> requeueable) {
+        if (!enabled) {
+            return request.get();
+        }
+        for (int requeues = 0; ; ) {
+            awaitPermitted();
+            try {
+                return request.get();
+            } catch (CallNotPermittedException e) {
+                log.debug("CCD circuit breaker opened before the call was made, waiting again");
+            } catch (RuntimeException e) {
+                if (!requeueable.test(e) || getState() == State.CLOSED || requeues >= maxRequeues) {
+                    throw e;
+                }
+                requeues++;
+                log.warn("CCD call failed while the circuit breaker is not closed, retrying when it lets calls "
+                             + "through: {}", e.getMessage());
+                migrationMetrics.callRequeued();
+            }
+        }
+    }
+
+    /**
+     * Makes one request to CCD within {@link #call} and records its outcome. When the breaker does not let the
+     * request through it fails at once, without waiting, and {@link #call} waits instead.
+     */
+    public <T> T attempt(Supplier<T> request) {
+        if (!enabled) {
+            return request.get();
+        }
+        long probe = tryAcquire();
+        long start = System.nanoTime();
+        boolean recorded = false;
+        try {
+            T response = request.get();
+            recorded = true;
+            record(probe, false, System.nanoTime() - start > slowCallNanos);
+            return response;
+        } catch (RuntimeException e) {
+            recorded = true;
+            record(probe, isOutage(e), System.nanoTime() - start > slowCallNanos);
+            throw e;
+        } finally {
+            if (!recorded) {
+                // an Error says nothing about CCD, but a probe slot left taken would keep every caller waiting
+                release(probe);
+            }
+        }
+    }
+
+    State getState() {
+        lock.lock();
+        try {
+            return state;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits until the breaker is closed, its open period is over or a probe slot is free, without taking a slot.
+     */
+    private void awaitPermitted() {
+        lock.lock();
+        try {
+            while (state != State.CLOSED) {
+                long now = System.nanoTime();
+                if (state == State.OPEN) {
+                    if (now - openUntilNanos >= 0) {
+                        return;
+                    }
+                    permitted.awaitNanos(openUntilNanos - now);
+                } else if (probesStarted < probeCalls) {
+                    return;
+                } else {
+                    permitted.await();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CaseMigrationException("Interrupted while the CCD circuit breaker was open", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Takes a permit for a request, returning the half-open cycle it probes or {@link #NOT_A_PROBE}.
+     */
+    private long tryAcquire() {
+        long probe;
+        lock.lock();
+        try {
+            probe = permit();
+        } finally {
+            lock.unlock();
+        }
+        if (probe == NOT_PERMITTED) {
+            throw new CallNotPermittedException();
+        }
+        return probe;
+    }
+
+    private long permit() {
+        if (state == State.CLOSED) {
+            return NOT_A_PROBE;
+        }
+        if (state == State.OPEN && System.nanoTime() - openUntilNanos >= 0) {
+            state = State.HALF_OPEN;
+            halfOpenCycle++;
+            probesStarted = 0;
+            probesSucceeded = 0;
+            log.info("CCD circuit breaker half open, probing with {} calls", probeCalls);
+        }
+        if (state == State.HALF_OPEN && probesStarted < probeCalls) {
+            probesStarted++;
+            return halfOpenCycle;
+        }
+        return NOT_PERMITTED;
+    }
+
+    private void record(long probe, boolean failed, boolean slow) {
+        lock.lock();
+        try {
+            if (probe != NOT_A_PROBE) {
+                if (state == State.HALF_OPEN && probe == halfOpenCycle) {
+                    if (failed || slow) {
+                        open("a probe call " + (failed ? "failed" : "was slow"));
+                    } else if (++probesSucceeded >= probeCalls) {
+                        close();
+                    }
+                }
+            } else if (state == State.CLOSED) {
+                add((byte) ((failed ? FAILED : 0) | (slow ? SLOW : 0)));
+                if (calls >= minimumCalls) {
+                    if (failureRatePercent > 0 && failures * 100 >= failureRatePercent * calls) {
+                        open(failures + " of the last " + calls + " calls failed");
+                    } else if (slowCallRatePercent > 0 && slowCalls * 100 >= slowCallRatePercent * calls) {
+                        open(slowCalls + " of the last " + calls + " calls were slow");
+                    }
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gives back the probe slot of a request that ended without an outcome.
+     */
+    private void release(long probe) {
+        if (probe == NOT_A_PROBE) {
+            return;
+        }
+        lock.lock();
+        try {
+            if (state == State.HALF_OPEN && probe == halfOpenCycle) {
+                probesStarted--;
+                permitted.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void add(byte outcome) {
+        if (calls == outcomes.length) {
+            byte oldest = outcomes[next];
+            failures -= oldest & FAILED;
+            slowCalls -= (oldest & SLOW) >> 1;
+        } else {
+            calls++;
+        }
+        outcomes[next] = outcome;
+        next = (next + 1) % outcomes.length;
+        failures += outcome & FAILED;
+        slowCalls += (outcome & SLOW) >> 1;
+    }
+
+    private void open(String reason) {
+        state = State.OPEN;
+        openUntilNanos = System.nanoTime() + openNanos;
+        reset();
+        // callers waiting for the end of a half-open cycle now wait for the end of this open period instead
+        permitted.signalAll();
+        migrationMetrics.circuitOpened();
+        log.warn("CCD circuit breaker open because {}, pausing CCD calls for {} ms", reason,
+                 TimeUnit.NANOSECONDS.toMillis(openNanos));
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        reset();
+        permitted.signalAll();
+        log.info("CCD circuit breaker closed, CCD calls resumed");
+    }
+
+    private void reset() {
+        calls = 0;
+        next = 0;
+        failures = 0;
+        slowCalls = 0;
+    }
+
+    /**
+     * Thrown by {@link #attempt} when the breaker does not let a request through. It is not a
+     * {@link FeignException}, so the rate limiter passes it on without retrying or slowing down.
+     */
+    private static final class CallNotPermittedException extends RuntimeException {
+
+        private CallNotPermittedException() {
+            super("CCD circuit breaker is open", null, false, false);
+        }
+    }
+
+    private static boolean isRefused(RuntimeException e) {
+        return e instanceof FeignException feignException && AdaptiveRateLimiter.isRefused(feignException);
+    }
+
+    private static boolean isOutage(RuntimeException e) {
+        if (!(e instanceof FeignException feignException)) {
+            return false;
+        }
+        int status = feignException.status();
+        return e instanceof RetryableException || status == 429 || status >= 500 || status <= 0;
+    }
+}
@@ -1,6 +1,7 @@
 package uk.gov.hmcts.reform.migration.ccd;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import uk.gov.hmcts.reform.authorisation.generators.AuthTokenGenerator;
 import uk.gov.hmcts.reform.ccd.client.CoreCaseDataApi;
@@ -8,24 +9,39 @@ import uk.gov.hmcts.reform.ccd.client.model.CaseDataContent;
 import uk.gov.hmcts.reform.ccd.client.model.CaseDetails;
 import uk.gov.hmcts.reform.ccd.client.model.Event;
 import uk.gov.hmcts.reform.ccd.client.model.StartEventResponse;
-import uk.gov.hmcts.reform.idam.client.IdamClient;
-import uk.gov.hmcts.reform.idam.client.models.UserInfo;
 import uk.gov.hmcts.reform.migration.auth.AuthUtil;
+import uk.gov.hmcts.reform.migration.auth.IdamUserCache;
+import uk.gov.hmcts.reform.migration.metrics.MigrationMetrics;
+import uk.gov.hmcts.reform.migration.service.CaseData;
 import uk.gov.hmcts.reform.migration.service.DataMigrationService;
+import uk.gov.hmcts.reform.migration.service.InPlaceDataMigrationService;
 
 import java.util.Map;
 
 @Service
 public class CoreCaseDataService {
 
+    /**
+     * Returned instead of the submitted case when the migration left the data unchanged and nothing was submitted.
+     */
+    public static final CaseDetails UNCHANGED = CaseDetails.builder().build();
+
     @Autowired
-    private IdamClient idamClient;
+    private IdamUserCache idamUserCache;
     @Autowired
     private AuthTokenGenerator authTokenGenerator;
     @Autowired
     private CoreCaseDataApi coreCaseDataApi;
     @Autowired
     private DataMigrationService<Map<String, Object>> dataMigrationService;
+    @Autowired
+    private AdaptiveRateLimiter rateLimiter;
+    @Autowired
+    private CircuitBreaker circuitBreaker;
+    @Autowired
+    private MigrationMetrics migrationMetrics;
+    @Value("${case-migration.skipUnchanged:true}")
+    private boolean skipUnchanged;
 
     public CaseDetails update(String authorisation, String eventId,
                               String eventSummary,
@@ -33,20 +49,79 @@ public class CoreCaseDataService {
                               String caseType,
                               Long caseId,
                               String jurisdiction) {
-        UserInfo userInfo = idamClient.getUserInfo(AuthUtil.getBearerToken(authorisation));
+        StartEventResponse startEventResponse = startEvent(authorisation, eventId, caseType, caseId, jurisdiction);
+        MigrationEvent migrationEvent = migrate(startEventResponse, eventSummary, eventDescription);
+        return submitEvent(authorisation, caseType, migrationEvent);
+    }
+
+    public StartEventResponse startEvent(String authorisation,
+                                         String eventId,
+                                         String caseType,
+                                         Long caseId,
+                                         String jurisdiction) {
+        String userToken = AuthUtil.getBearerToken(authorisation);
+        String userId = idamUserCache.getUserId(userToken);
 
-        StartEventResponse startEventResponse = coreCaseDataApi.startEventForCaseWorker(
-            AuthUtil.getBearerToken(authorisation),
-            authTokenGenerator.generate(),
-            userInfo.getUid(),
-            jurisdiction,
-            caseType,
-            String.valueOf(caseId),
-            eventId);
+        return circuitBreaker.call(() -> rateLimiter.call(() -> migrationMetrics.recordStartEvent(
+            () -> circuitBreaker.attempt(() -> coreCaseDataApi.startEventForCaseWorker(
+                userToken,
+                authTokenGenerator.generate(),
+                userId,
+                jurisdiction,
+                caseType,
+                String.valueOf(caseId),
+                eventId)))));
+    }
 
+    public MigrationEvent migrate(StartEventResponse startEventResponse,
+                                  String eventSummary,
+                                  String eventDescription) {
         CaseDetails updatedCaseDetails = startEventResponse.getCaseDetails();
+        if (dataMigrationService instanceof InPlaceDataMigrationService inPlaceMigration) {
+            CaseData caseData = migrationMetrics.recordMigrate(() -> {
+                CaseData data = CaseData.of(updatedCaseDetails.getData());
+                inPlaceMigration.migrate(data);
+                return data;
+            });
+            return new MigrationEvent(updatedCaseDetails,
+                                      caseDataContent(startEventResponse, eventSummary, eventDescription,
+                                                      caseData.toMap()),
+                                      skipUnchanged && !caseData.isChanged());
+        }
 
-        CaseDataContent caseDataContent = CaseDataContent.builder()
+        Map<String, Object> data = updatedCaseDetails.getData();
+        long before = skipUnchanged ? CaseDataFingerprint.of(data) : 0;
+        Map<String, Object> migrated = migrationMetrics.recordMigrate(() -> dataMigrationService.migrate(data));
+        return new MigrationEvent(updatedCaseDetails,
+                                  caseDataContent(startEventResponse, eventSummary, eventDescription, migrated),
+                                  skipUnchanged && CaseDataFingerprint.of(migrated) == before);
+    }
+
+    public CaseDetails submitEvent(String authorisation, String caseType, MigrationEvent migrationEvent) {
+        if (migrationEvent.unchanged()) {
+            return UNCHANGED;
+        }
+        String userToken = AuthUtil.getBearerToken(authorisation);
+        String userId = idamUserCache.getUserId(userToken);
+        CaseDetails updatedCaseDetails = migrationEvent.caseDetails();
+
+        return circuitBreaker.callWrite(() -> rateLimiter.callWrite(() -> migrationMetrics.recordSubmitEvent(
+            () -> circuitBreaker.attempt(() -> coreCaseDataApi.submitEventForCaseWorker(
+                userToken,
+                authTokenGenerator.generate(),
+                userId,
+                updatedCaseDetails.getJurisdiction(),
+                caseType,
+                String.valueOf(updatedCaseDetails.getId()),
+                true,
+                migrationEvent.caseDataContent())))));
+    }
+
+    private static CaseDataContent caseDataContent(StartEventResponse startEventResponse,
+                                                   String eventSummary,
+                                                   String eventDescription,
+                                                   Map<String, Object> data) {
+        return CaseDataContent.builder()
             .eventToken(startEventResponse.getToken())
             .event(
                 Event.builder()
@@ -54,17 +129,7 @@ public class CoreCaseDataService {
                     .summary(eventSummary)
                     .description(eventDescription)
                     .build()
-            ).data(dataMigrationService.migrate(updatedCaseDetails.getData()))
+            ).data(data)
             .build();
-
-        return coreCaseDataApi.submitEventForCaseWorker(
-            AuthUtil.getBearerToken(authorisation),
-            authTokenGenerator.generate(),
-            userInfo.getUid(),
-            updatedCaseDetails.getJurisdiction(),
-            caseType,
-            String.valueOf(updatedCaseDetails.getId()),
-            true,
-            caseDataContent);
     }
 }
@@ -0,0 +1,83 @@
+package uk.gov.hmcts.reform.migration.ccd;
+
+import feign.Client;
+import feign.hc5.ApacheHttp5Client;
+import feign.http2client.Http2Client;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClientBuilder;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.http.HttpClient;
+
+/**
+ * The HTTP client behind every Feign client (CCD, IDAM and S2S). By default a pooled Apache HttpClient keeps
+ * connections alive between calls and asks for gzip responses; the pool allows as many connections per host as
+ * there can be concurrent case updates, plus the search. Alternatively the JDK client negotiates HTTP/2, which
+ * multiplexes the concurrent calls over one connection per host but does not decompress responses, so no gzip
+ * is requested in that mode. Read timeouts are set per Feign client in
+ * {@code application.properties}, so searches and updates can have different ones.
+ */
+@Configuration
+@Slf4j
+public class FeignHttpClientConfiguration {
+
+    private static final int SEARCH_CONNECTIONS = 2;
+
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager feignConnectionManager(
+        @Value("${case-migration.http.maxConnectionsPerRoute:0}") int maxConnectionsPerRoute,
+        @Value("${case-migration.http.connectionTimeToLiveSeconds:300}") long timeToLiveSeconds,
+        @Value("${case-migration.processing.concurrency:1}") int concurrency,
+        @Value("${case-migration.pipeline.enabled:false}") boolean pipelineEnabled,
+        @Value("${case-migration.pipeline.startConcurrency:8}") int pipelineStartConcurrency,
+        @Value("${case-migration.pipeline.submitConcurrency:8}") int pipelineSubmitConcurrency) {
+        int perRoute = maxConnectionsPerRoute > 0
+            ? maxConnectionsPerRoute
+            : (pipelineEnabled ? pipelineStartConcurrency + pipelineSubmitConcurrency : Math.max(concurrency, 1))
+                + SEARCH_CONNECTIONS;
+        log.info("HTTP connection pool allows {} connections per host", perRoute);
+
+        return PoolingHttpClientConnectionManagerBuilder.create()
+            .setMaxConnPerRoute(perRoute)
+            .setMaxConnTotal(perRoute * 2)
+            .setDefaultConnectionConfig(ConnectionConfig.custom()
+                                            .setTimeToLive(TimeValue.ofSeconds(timeToLiveSeconds))
+                                            .build())
+            .build();
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient feignHttpClient(
+        PoolingHttpClientConnectionManager feignConnectionManager,
+        @Value("${case-migration.http.compression:true}") boolean compression) {
+        HttpClientBuilder builder = HttpClients.custom()
+            .setConnectionManager(feignConnectionManager)
+            .evictExpiredConnections()
+            .evictIdleConnections(TimeValue.ofSeconds(30));
+        if (!compression) {
+            builder.disableContentCompression();
+        }
+        return builder.build();
+    }
+
+    @Bean
+    public Client feignClient(CloseableHttpClient feignHttpClient,
+                              @Value("${case-migration.http.http2:false}") boolean http2) {
+        if (!http2) {
+            return new ApacheHttp5Client(feignHttpClient);
+        }
+        log.info("Calling CCD, IDAM and S2S over HTTP/2 where the server supports it");
+        return new Http2Client(HttpClient.newBuilder()
+                                   .version(HttpClient.Version.HTTP_2)
+                                   .followRedirects(HttpClient.Redirect.NORMAL)
+                                   .build());
+    }
+}
@@ -0,0 +1,15 @@
+package uk.gov.hmcts.reform.migration.ccd;
+
+import uk.gov.hmcts.reform.ccd.client.model.CaseDataContent;
+import uk.gov.hmcts.reform.ccd.client.model.CaseDetails;
+
+/**
+ * A started event with the migrated data to submit. An {@code unchanged} event is one whose migration left the
+ * data as it was, so there is nothing to submit.
+ */
+public record MigrationEvent(CaseDetails caseDetails, CaseDataContent caseDataContent, boolean unchanged) {
+
+    public MigrationEvent(CaseDetails caseDetails, CaseDataContent caseDataContent) {
+        this(caseDetails, caseDataContent, false);
+    }
+}
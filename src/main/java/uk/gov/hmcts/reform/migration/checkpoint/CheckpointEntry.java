@@ -0,0 +1,9 @@
+package uk.gov.hmcts.reform.migration.checkpoint;
+
+import java.util.List;
+
+public record CheckpointEntry(String caseType,
+                              String searchAfter,
+                              List<Long> migratedCases,
+                              List<Long> failedCases) {
+}
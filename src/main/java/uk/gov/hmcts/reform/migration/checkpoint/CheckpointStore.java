@@ -0,0 +1,103 @@
+package uk.gov.hmcts.reform.migration.checkpoint;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import uk.gov.hmcts.reform.domain.exception.CaseMigrationException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Append-only checkpoint file with one JSON line per flushed batch. Replaying the lines for a case type gives
+ * the last committed search_after reference and every case already migrated or failed.
+ */
+@Component
+@Slf4j
+public class CheckpointStore {
+
+    private final ObjectMapper objectMapper;
+
+    private final Path file;
+
+    private final int batchSize;
+
+    @Autowired
+    public CheckpointStore(ObjectMapper objectMapper,
+                           @Value("${case-migration.checkpoint.file:}") String file,
+                           @Value("${case-migration.checkpoint.batchSize:1000}") int batchSize) {
+        this.objectMapper = objectMapper;
+        this.file = StringUtils.hasText(file) ? Path.of(file.trim()) : null;
+        this.batchSize = Math.max(batchSize, 1);
+    }
+
+    /**
+     * Opens the checkpoint of a case type. Only a run reading its cases in ascending reference order is
+     * {@code ordered} and resumes from a search_after reference; any other run resumes from the finished cases.
+     */
+    public CheckpointTracker open(String caseType, boolean ordered) {
+        if (file == null) {
+            return CheckpointTracker.disabled();
+        }
+
+        List<CheckpointEntry> entries = read(caseType);
+        CheckpointTracker tracker = new CheckpointTracker(this, caseType, batchSize, entries, ordered);
+        if (!entries.isEmpty()) {
+            log.info("Resuming case type {} from checkpoint {} after reference {} with {} cases already done",
+                     caseType, file, tracker.getSearchAfter(), tracker.getCompletedCount());
+        }
+        return tracker;
+    }
+
+    synchronized void append(CheckpointEntry entry) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                                                    StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            byte[] line = (objectMapper.writeValueAsString(entry) + "\n").getBytes(StandardCharsets.UTF_8);
+            ByteBuffer buffer = ByteBuffer.wrap(line);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            throw new CaseMigrationException("Unable to write checkpoint " + file, e);
+        }
+    }
+
+    private List<CheckpointEntry> read(String caseType) {
+        List<CheckpointEntry> entries = new ArrayList<>();
+        if (!Files.exists(file)) {
+            return entries;
+        }
+
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    CheckpointEntry entry = objectMapper.readValue(line, CheckpointEntry.class);
+                    if (caseType.equals(entry.caseType())) {
+                        entries.add(entry);
+                    }
+                } catch (IOException e) {
+                    log.warn("Ignoring unreadable checkpoint line in {}: {}", file, e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            throw new CaseMigrationException("Unable to read checkpoint " + file, e);
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,153 @@
+package uk.gov.hmcts.reform.migration.checkpoint;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Tracks the progress of one case type run. Cases must be started in ascending reference order; the committed
+ * search_after reference is the highest one below every case still in flight, so a resumed search never skips
+ * an unfinished case. Cases finished beyond that point are remembered by ID and filtered out on resume. A run
+ * whose cases come in any other order, such as one reading an export, commits no search_after and resumes from
+ * the finished cases alone.
+ */
+public class CheckpointTracker implements AutoCloseable {
+
+    private final CheckpointStore store;
+
+    private final String caseType;
+
+    private final int batchSize;
+
+    private final boolean ordered;
+
+    private final Set<Long> completedCases = new HashSet<>();
+
+    private final NavigableSet<Long> inFlight = new ConcurrentSkipListSet<>();
+
+    private final String resumeSearchAfter;
+
+    private volatile long lastStarted = -1;
+
+    private List<Long> pendingMigrated = new ArrayList<>();
+
+    private List<Long> pendingFailed = new ArrayList<>();
+
+    private int pendingCount;
+
+    private String committedSearchAfter;
+
+    CheckpointTracker(CheckpointStore store, String caseType, int batchSize, List<CheckpointEntry> entries,
+                      boolean ordered) {
+        this.store = store;
+        this.caseType = caseType;
+        this.batchSize = batchSize;
+        this.ordered = ordered;
+
+        String searchAfter = null;
+        for (CheckpointEntry entry : entries) {
+            if (entry.searchAfter() != null) {
+                searchAfter = entry.searchAfter();
+            }
+            addAll(completedCases, entry.migratedCases());
+            addAll(completedCases, entry.failedCases());
+        }
+        this.resumeSearchAfter = ordered ? searchAfter : null;
+        this.committedSearchAfter = resumeSearchAfter;
+    }
+
+    public static CheckpointTracker disabled() {
+        return new CheckpointTracker(null, null, Integer.MAX_VALUE, List.of(), false);
+    }
+
+    public String getSearchAfter() {
+        return resumeSearchAfter;
+    }
+
+    public int getCompletedCount() {
+        return completedCases.size();
+    }
+
+    public boolean isCompleted(Long caseId) {
+        return completedCases.contains(caseId);
+    }
+
+    public void caseStarted(long caseId) {
+        if (store == null || !ordered) {
+            return;
+        }
+        inFlight.add(caseId);
+        lastStarted = caseId;
+    }
+
+    public void caseMigrated(long caseId) {
+        caseFinished(caseId, pendingMigrated);
+    }
+
+    public void caseFailed(long caseId) {
+        caseFinished(caseId, pendingFailed);
+    }
+
+    public void caseSkipped(long caseId) {
+        caseFinished(caseId, null);
+    }
+
+    @Override
+    public void close() {
+        flush();
+    }
+
+    public synchronized void flush() {
+        if (store == null) {
+            return;
+        }
+
+        String searchAfter = committedReference();
+        if (pendingCount == 0 && (searchAfter == null || searchAfter.equals(committedSearchAfter))) {
+            return;
+        }
+
+        store.append(new CheckpointEntry(caseType, searchAfter, pendingMigrated, pendingFailed));
+        committedSearchAfter = searchAfter;
+        pendingMigrated = new ArrayList<>();
+        pendingFailed = new ArrayList<>();
+        pendingCount = 0;
+    }
+
+    private void caseFinished(long caseId, List<Long> outcome) {
+        if (store == null) {
+            return;
+        }
+
+        boolean flushDue;
+        synchronized (this) {
+            if (outcome != null) {
+                outcome.add(caseId);
+            }
+            inFlight.remove(caseId);
+            flushDue = ++pendingCount >= batchSize;
+        }
+        if (flushDue) {
+            flush();
+        }
+    }
+
+    private String committedReference() {
+        if (!ordered) {
+            return null;
+        }
+        long started = lastStarted;
+        Long lowestInFlight = inFlight.ceiling(Long.MIN_VALUE);
+        long committed = lowestInFlight == null ? started : Math.min(started, lowestInFlight - 1);
+        return committed < 0 ? committedSearchAfter : String.valueOf(committed);
+    }
+
+    private static void addAll(Set<Long> target, List<Long> caseIds) {
+        if (caseIds != null) {
+            target.addAll(caseIds);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package uk.gov.hmcts.reform.migration.dryrun;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Structural difference between two versions of a case data map. Nested maps are compared key by key and lists
+ * index by index; every other value is compared with {@code equals}. Counts are of leaf paths, and
+ * {@code changedFields} holds the top-level case fields with at least one change.
+ */
+public record CaseDataDiff(int added, int removed, int modified, Set<String> changedFields) {
+
+    public static CaseDataDiff between(Map<String, Object> before, Map<String, Object> after) {
+        Counter counter = new Counter();
+        Set<String> changedFields = new TreeSet<>();
+        Map<String, Object> original = before == null ? Map.of() : before;
+        Map<String, Object> migrated = after == null ? Map.of() : after;
+
+        for (Map.Entry<String, Object> entry : original.entrySet()) {
+            int changes = counter.total();
+            if (migrated.containsKey(entry.getKey())) {
+                counter.compare(entry.getValue(), migrated.get(entry.getKey()));
+            } else {
+                counter.removed++;
+            }
+            if (counter.total() > changes) {
+                changedFields.add(entry.getKey());
+            }
+        }
+        for (String field : migrated.keySet()) {
+            if (!original.containsKey(field)) {
+                counter.added++;
+                changedFields.add(field);
+            }
+        }
+        return new CaseDataDiff(counter.added, counter.removed, counter.modified, changedFields);
+    }
+
+    /**
+     * Deep copy of JSON-like case data (maps, lists and immutable scalars), taken before a migration that may
+     * change the map it is given in place.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T copy(T value) {
+        if (value instanceof Map<?, ?> map) {
+            Map<Object, Object> copy = new LinkedHashMap<>(map.size() * 4 / 3 + 1);
+            map.forEach((key, item) -> copy.put(key, copy(item)));
+            return (T) copy;
+        }
+        if (value instanceof List<?> list) {
+            List<Object> copy = new ArrayList<>(list.size());
+            list.forEach(item -> copy.add(copy(item)));
+            return (T) copy;
+        }
+        return value;
+    }
+
+    public boolean isEmpty() {
+        return added == 0 && removed == 0 && modified == 0;
+    }
+
+    private static final class Counter {
+
+        private int added;
+        private int removed;
+        private int modified;
+
+        private int total() {
+            return added + removed + modified;
+        }
+
+        private void compare(Object before, Object after) {
+            if (before instanceof Map<?, ?> original && after instanceof Map<?, ?> migrated) {
+                for (Map.Entry<?, ?> entry : original.entrySet()) {
+                    if (migrated.containsKey(entry.getKey())) {
+                        compare(entry.getValue(), migrated.get(entry.getKey()));
+                    } else {
+                        removed++;
+                    }
+                }
+                for (Object key : migrated.keySet()) {
+                    if (!original.containsKey(key)) {
+                        added++;
+                    }
+                }
+            } else if (before instanceof List<?> original && after instanceof List<?> migrated) {
+                int common = Math.min(original.size(), migrated.size());
+                for (int i = 0; i < common; i++) {
+                    compare(original.get(i), migrated.get(i));
+                }
+                removed += Math.max(original.size() - migrated.size(), 0);
+                added += Math.max(migrated.size() - original.size(), 0);
+            } else if (!Objects.equals(before, after)) {
+                modified++;
+            }
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package uk.gov.hmcts.reform.migration.dryrun;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Collects what a dry run would have done: how many cases {@code accepts()} matched, how much
+ * {@code migrate} changed, and how long each case took, from which the duration of the real run is estimated.
+ */
+@Slf4j
+public class DryRunReport {
+
+    private static final int REPORTED_FIELDS = 20;
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder changed = new LongAdder();
+    private final LongAdder added = new LongAdder();
+    private final LongAdder removed = new LongAdder();
+    private final LongAdder modified = new LongAdder();
+    private final LongAdder caseNanos = new LongAdder();
+    private final LongAccumulator maxCaseNanos = new LongAccumulator(Math::max, 0);
+    private final Map<String, LongAdder> changedFields = new ConcurrentHashMap<>();
+
+    public void caseRejected() {
+        rejected.increment();
+    }
+
+    public void caseMigrated(CaseDataDiff diff, long durationNanos) {
+        accepted.increment();
+        if (!diff.isEmpty()) {
+            changed.increment();
+        }
+        added.add(diff.added());
+        removed.add(diff.removed());
+        modified.add(diff.modified());
+        diff.changedFields().forEach(field -> changedFields.computeIfAbsent(field, key -> new LongAdder()).increment());
+        caseNanos.add(durationNanos);
+        maxCaseNanos.accumulate(durationNanos);
+    }
+
+    public long getAcceptedCount() {
+        return accepted.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    public long getChangedCount() {
+        return changed.sum();
+    }
+
+    public double getMatchRate() {
+        long evaluated = getAcceptedCount() + getRejectedCount();
+        return evaluated == 0 ? 0 : (double) getAcceptedCount() / evaluated;
+    }
+
+    public Map<String, Long> getChangedFields() {
+        return changedFields.entrySet().stream()
+            .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().sum()));
+    }
+
+    /**
+     * Cases per second a real run would manage at the given concurrency, taking each case to cost what it did
+     * here plus {@code submitNanos} for the submit event the dry run leaves out.
+     */
+    public double estimateThroughput(int concurrency, double submitNanos) {
+        long cases = getAcceptedCount();
+        if (cases == 0) {
+            return 0;
+        }
+        double perCaseNanos = caseNanos.sum() / (double) cases + submitNanos;
+        return perCaseNanos <= 0 ? 0 : Math.max(concurrency, 1) * 1e9 / perCaseNanos;
+    }
+
+    /**
+     * Seconds a real run would take to migrate the accepted share of {@code expectedCases}.
+     */
+    public long estimateSeconds(long expectedCases, int concurrency, double submitNanos) {
+        double throughput = estimateThroughput(concurrency, submitNanos);
+        if (throughput == 0 || expectedCases <= 0) {
+            return 0;
+        }
+        return (long) Math.ceil(expectedCases * getMatchRate() / throughput);
+    }
+
+    public void log(long expectedCases, int concurrency, double submitNanos) {
+        long cases = getAcceptedCount();
+        log.info("""
+                     Dry run summary
+                     Cases evaluated: {}, accepted: {} ({}%), changed by migrate: {}
+                     Data paths added: {}, removed: {}, modified: {}
+                     Most changed fields: {}
+                     Case latency (start event and migrate) mean: {} ms, max: {} ms
+                     Estimated throughput at concurrency {}, counting {} ms per submit: {} cases/s
+                     Estimated run time for {} cases: {} s""",
+                 cases + getRejectedCount(), cases, String.format("%.1f", getMatchRate() * 100), getChangedCount(),
+                 added.sum(), removed.sum(), modified.sum(),
+                 mostChangedFields(),
+                 cases == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(caseNanos.sum() / cases),
+                 TimeUnit.NANOSECONDS.toMillis(maxCaseNanos.get()),
+                 concurrency, TimeUnit.NANOSECONDS.toMillis((long) submitNanos),
+                 String.format("%.1f", estimateThroughput(concurrency, submitNanos)),
+                 expectedCases, estimateSeconds(expectedCases, concurrency, submitNanos));
+    }
+
+    private String mostChangedFields() {
+        return getChangedFields().entrySet().stream()
+            .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder())
+                        .thenComparing(Map.Entry.comparingByKey()))
+            .limit(REPORTED_FIELDS)
+            .map(entry -> entry.getKey() + "=" + entry.getValue())
+            .collect(Collectors.joining(", ", "[", "]"));
+    }
+}
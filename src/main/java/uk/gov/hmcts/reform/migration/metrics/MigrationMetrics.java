@@ -0,0 +1,268 @@
+package uk.gov.hmcts.reform.migration.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Measurement;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+@Slf4j
+@Component
+public class MigrationMetrics {
+
+    private static final String PREFIX = "ccd.migration.";
+
+    private final MeterRegistry registry;
+
+    private final String reportFile;
+
+    private final Timer searchPage;
+
+    private final Timer startEvent;
+
+    private final Timer submitEvent;
+
+    private final Timer migrate;
+
+    private final Timer accepts;
+
+    private final Counter migrated;
+
+    private final Counter failed;
+
+    private final Counter skipped;
+
+    private final Counter unchanged;
+
+    private final Counter dryRun;
+
+    private final Counter duplicates;
+
+    private final Counter circuitOpened;
+
+    private final Counter callsRequeued;
+
+    private final AtomicLong expectedCases = new AtomicLong(-1);
+
+    private final AtomicLong processedCases = new AtomicLong();
+
+    private volatile long runStartNanos = System.nanoTime();
+
+    @Autowired
+    public MigrationMetrics(MeterRegistry registry,
+                            @Value("${case-migration.metrics.file:}") String reportFile) {
+        this.registry = registry;
+        this.reportFile = reportFile;
+
+        this.searchPage = timer("search.page", "Elasticsearch search_after page requests, each retry timed on its own");
+        this.startEvent = Timer.builder(PREFIX + "ccd.call").tag("operation", "startEvent")
+            .description("CCD data store event requests, each retry timed on its own").register(registry);
+        this.submitEvent = Timer.builder(PREFIX + "ccd.call").tag("operation", "submitEvent")
+            .description("CCD data store event requests, each retry timed on its own").register(registry);
+        this.migrate = timer("migrate", "DataMigrationService.migrate calls");
+        this.accepts = timer("accepts", "DataMigrationService.accepts predicate evaluations");
+
+        this.migrated = outcome("migrated");
+        this.failed = outcome("failed");
+        this.skipped = outcome("skipped");
+        this.unchanged = outcome("unchanged");
+        this.dryRun = outcome("dry_run");
+        this.duplicates = Counter.builder(PREFIX + "duplicates")
+            .description("Cases returned again by the search and not updated twice")
+            .register(registry);
+        this.circuitOpened = Counter.builder(PREFIX + "circuit.opened")
+            .description("Times the CCD circuit breaker opened and paused CCD calls")
+            .register(registry);
+        this.callsRequeued = Counter.builder(PREFIX + "circuit.requeued")
+            .description("CCD calls made again after failing while the circuit breaker was not closed")
+            .register(registry);
+
+        Gauge.builder(PREFIX + "throughput", this, MigrationMetrics::casesPerSecond)
+            .description("Cases processed per second since the run started")
+            .baseUnit("cases/s")
+            .register(registry);
+        Gauge.builder(PREFIX + "eta", this, MigrationMetrics::estimatedSecondsRemaining)
+            .description("Estimated time until every expected case has been processed, -1 when unknown")
+            .baseUnit("seconds")
+            .register(registry);
+    }
+
+    public void runStarted() {
+        runStartNanos = System.nanoTime();
+        processedCases.set(0);
+        expectedCases.set(-1);
+    }
+
+    /**
+     * Adds to the number of cases the run expects to process, once for each case type searched.
+     */
+    public void expectCases(long cases) {
+        expectedCases.accumulateAndGet(cases, (expected, added) -> expected < 0 ? added : expected + added);
+    }
+
+    public long getExpectedCases() {
+        return expectedCases.get();
+    }
+
+    public <T> T recordSearchPage(Supplier<T> search) {
+        return searchPage.record(search);
+    }
+
+    public <T> T recordStartEvent(Supplier<T> call) {
+        return startEvent.record(call);
+    }
+
+    public double getMeanStartEventNanos() {
+        return startEvent.mean(TimeUnit.NANOSECONDS);
+    }
+
+    public <T> T recordSubmitEvent(Supplier<T> call) {
+        return submitEvent.record(call);
+    }
+
+    public <T> T recordMigrate(Supplier<T> migration) {
+        return migrate.record(migration);
+    }
+
+    public boolean recordAccepts(BooleanSupplier predicate) {
+        long start = System.nanoTime();
+        try {
+            return predicate.getAsBoolean();
+        } finally {
+            accepts.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public void caseMigrated() {
+        migrated.increment();
+        processedCases.incrementAndGet();
+    }
+
+    public void caseSkipped() {
+        skipped.increment();
+        processedCases.incrementAndGet();
+    }
+
+    public void caseUnchanged() {
+        unchanged.increment();
+        processedCases.incrementAndGet();
+    }
+
+    public void caseDryRun() {
+        dryRun.increment();
+        processedCases.incrementAndGet();
+    }
+
+    public void caseDuplicate() {
+        duplicates.increment();
+    }
+
+    public void circuitOpened() {
+        circuitOpened.increment();
+    }
+
+    public void callRequeued() {
+        callsRequeued.increment();
+    }
+
+    public void caseFailed(Exception e) {
+        failed.increment();
+        processedCases.incrementAndGet();
+        Counter.builder(PREFIX + "failures")
+            .description("Failed case updates by exception class")
+            .tag("exception", e.getClass().getSimpleName())
+            .register(registry)
+            .increment();
+    }
+
+    public void writeReport() {
+        if (!StringUtils.hasText(reportFile)) {
+            return;
+        }
+        Path path = Path.of(reportFile.trim());
+        try {
+            Files.writeString(path, scrape(), StandardCharsets.UTF_8);
+            log.info("Migration metrics written to {}", path);
+        } catch (IOException e) {
+            log.error("Unable to write migration metrics to {}: {}", path, e.getMessage());
+        }
+    }
+
+    double casesPerSecond() {
+        double elapsedSeconds = (System.nanoTime() - runStartNanos) / 1e9;
+        return elapsedSeconds <= 0 ? 0 : processedCases.get() / elapsedSeconds;
+    }
+
+    double estimatedSecondsRemaining() {
+        long expected = expectedCases.get();
+        double rate = casesPerSecond();
+        if (expected < 0 || rate <= 0) {
+            return -1;
+        }
+        return Math.max(expected - processedCases.get(), 0) / rate;
+    }
+
+    private String scrape() {
+        return findPrometheusRegistry(registry)
+            .map(PrometheusMeterRegistry::scrape)
+            .orElseGet(this::plainText);
+    }
+
+    private String plainText() {
+        StringBuilder text = new StringBuilder();
+        for (Meter meter : registry.getMeters()) {
+            if (!meter.getId().getName().startsWith(PREFIX)) {
+                continue;
+            }
+            text.append(meter.getId().getName()).append(meter.getId().getTags());
+            for (Measurement measurement : meter.measure()) {
+                text.append(' ').append(measurement.getStatistic().getTagValueRepresentation())
+                    .append('=').append(measurement.getValue());
+            }
+            text.append('\n');
+        }
+        return text.toString();
+    }
+
+    private static Optional<PrometheusMeterRegistry> findPrometheusRegistry(MeterRegistry registry) {
+        if (registry instanceof PrometheusMeterRegistry prometheusMeterRegistry) {
+            return Optional.of(prometheusMeterRegistry);
+        }
+        if (registry instanceof CompositeMeterRegistry composite) {
+            return composite.getRegistries().stream()
+                .map(MigrationMetrics::findPrometheusRegistry)
+                .flatMap(Optional::stream)
+                .findFirst();
+        }
+        return Optional.empty();
+    }
+
+    private Timer timer(String name, String description) {
+        return Timer.builder(PREFIX + name).description(description).register(registry);
+    }
+
+    private Counter outcome(String outcome) {
+        return Counter.builder(PREFIX + "cases")
+            .description("Processed cases by outcome")
+            .tag("outcome", outcome)
+            .register(registry);
+    }
+}
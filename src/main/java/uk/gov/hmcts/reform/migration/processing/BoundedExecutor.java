@@ -0,0 +1,98 @@
+package uk.gov.hmcts.reform.migration.processing;
+
+import uk.gov.hmcts.reform.domain.exception.CaseMigrationException;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Runs case updates on virtual threads with at most {@code concurrency} of them in flight and at most
+ * {@code queueCapacity} more waiting, blocking the submitting thread once both are used up.
+ * A concurrency of one or less runs every task on the submitting thread. Blocked submitters are admitted in
+ * arrival order, so several case types feeding one executor take turns instead of one of them filling the queue.
+ */
+public class BoundedExecutor implements Executor, AutoCloseable {
+
+    private final ExecutorService delegate;
+
+    private final Semaphore submitted;
+
+    private final Semaphore running;
+
+    private final int concurrency;
+
+    private final int capacity;
+
+    public BoundedExecutor(int concurrency, int queueCapacity) {
+        this(concurrency, queueCapacity, Thread.ofVirtual().name("case-migration-", 0).factory());
+    }
+
+    public BoundedExecutor(int concurrency, int queueCapacity, ThreadFactory threadFactory) {
+        this.concurrency = concurrency;
+        this.capacity = concurrency + Math.max(queueCapacity, 0);
+        if (concurrency > 1) {
+            this.delegate = Executors.newThreadPerTaskExecutor(threadFactory);
+            this.submitted = new Semaphore(capacity, true);
+            this.running = new Semaphore(concurrency);
+        } else {
+            this.delegate = null;
+            this.submitted = null;
+            this.running = null;
+        }
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        if (delegate == null) {
+            task.run();
+            return;
+        }
+        acquire(submitted);
+        try {
+            delegate.execute(() -> run(task));
+        } catch (RuntimeException e) {
+            submitted.release();
+            throw e;
+        }
+    }
+
+    public int getActiveCount() {
+        return running == null ? 0 : concurrency - running.availablePermits();
+    }
+
+    public int getQueueDepth() {
+        return submitted == null ? 0 : Math.max(capacity - submitted.availablePermits() - getActiveCount(), 0);
+    }
+
+    @Override
+    public void close() {
+        if (delegate != null) {
+            delegate.close();
+        }
+    }
+
+    private void run(Runnable task) {
+        try {
+            acquire(running);
+            try {
+                task.run();
+            } finally {
+                running.release();
+            }
+        } finally {
+            submitted.release();
+        }
+    }
+
+    private static void acquire(Semaphore semaphore) {
+        try {
+            semaphore.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CaseMigrationException("Interrupted while waiting for a case migration slot", e);
+        }
+    }
+}
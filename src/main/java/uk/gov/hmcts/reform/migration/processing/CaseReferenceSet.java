@@ -0,0 +1,121 @@
+package uk.gov.hmcts.reform.migration.processing;
+
+/**
+ * Set of case references stored as primitive longs in one open-addressing table, used to skip a case the search
+ * returns a second time. A table sized for n references holds the next power of two at or above {@code n / 0.75}
+ * slots of 8 bytes: 10 million cases take a 2<sup>24</sup> slot table of 128 MiB, and 192 MiB for the moment the
+ * table doubles to that size. Not thread-safe; each case type's search adds to its own set from one thread.
+ */
+public class CaseReferenceSet {
+
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    private static final long EMPTY = 0;
+
+    private long[] slots;
+
+    private int shift;
+
+    private int resizeAt;
+
+    private int size;
+
+    private boolean containsEmpty;
+
+    private long duplicates;
+
+    public CaseReferenceSet(int expectedSize) {
+        allocate(capacityFor(Math.max(expectedSize, 1)));
+    }
+
+    /**
+     * Adds the reference, returning {@code false} and counting a duplicate when it was already there.
+     */
+    public boolean add(long reference) {
+        if (reference == EMPTY) {
+            if (containsEmpty) {
+                duplicates++;
+                return false;
+            }
+            containsEmpty = true;
+            return true;
+        }
+        int index = index(reference);
+        while (slots[index] != EMPTY) {
+            if (slots[index] == reference) {
+                duplicates++;
+                return false;
+            }
+            index = (index + 1) & (slots.length - 1);
+        }
+        slots[index] = reference;
+        if (++size > resizeAt) {
+            grow();
+        }
+        return true;
+    }
+
+    public boolean contains(long reference) {
+        if (reference == EMPTY) {
+            return containsEmpty;
+        }
+        int index = index(reference);
+        while (slots[index] != EMPTY) {
+            if (slots[index] == reference) {
+                return true;
+            }
+            index = (index + 1) & (slots.length - 1);
+        }
+        return false;
+    }
+
+    public int size() {
+        return size + (containsEmpty ? 1 : 0);
+    }
+
+    /**
+     * Number of {@link #add} calls that found the reference already in the set.
+     */
+    public long getDuplicates() {
+        return duplicates;
+    }
+
+    /**
+     * Bytes taken by the table, which is nearly all of the set's memory.
+     */
+    public long tableBytes() {
+        return (long) slots.length * Long.BYTES;
+    }
+
+    private int index(long reference) {
+        return (int) ((reference * 0x9E3779B97F4A7C15L) >>> shift);
+    }
+
+    private void grow() {
+        if (slots.length == MAX_CAPACITY) {
+            throw new IllegalStateException("More than " + resizeAt + " case references to deduplicate");
+        }
+        long[] previous = slots;
+        allocate(previous.length * 2);
+        for (long reference : previous) {
+            if (reference != EMPTY) {
+                int index = index(reference);
+                while (slots[index] != EMPTY) {
+                    index = (index + 1) & (slots.length - 1);
+                }
+                slots[index] = reference;
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        slots = new long[capacity];
+        shift = Long.SIZE - Integer.numberOfTrailingZeros(capacity);
+        resizeAt = capacity == MAX_CAPACITY ? capacity - 1 : capacity / 4 * 3;
+    }
+
+    private static int capacityFor(int expectedSize) {
+        long minimum = (long) Math.ceil(expectedSize / 0.75);
+        return (int) Math.min(Math.max(Long.highestOneBit(minimum - 1) << 1, 16), MAX_CAPACITY);
+    }
+}
@@ -0,0 +1,136 @@
+package uk.gov.hmcts.reform.migration.processing;
+
+import lombok.extern.slf4j.Slf4j;
+import uk.gov.hmcts.reform.domain.exception.CaseMigrationException;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Runs case updates as three stages connected by bounded hand-offs: a start stage and a submit stage on virtual
+ * threads for the CCD calls, and a transform stage on platform threads for the in-process migration. Each stage
+ * has its own concurrency, so fetching one case overlaps transforming and submitting others, and a full
+ * downstream stage holds back the stage feeding it.
+ */
+@Slf4j
+public class CaseUpdatePipeline implements AutoCloseable {
+
+    private final PipelineStage start;
+
+    private final PipelineStage transform;
+
+    private final PipelineStage submit;
+
+    private final ScheduledExecutorService reporter;
+
+    public CaseUpdatePipeline(int startConcurrency,
+                              int transformConcurrency,
+                              int submitConcurrency,
+                              int queueCapacity,
+                              long reportIntervalSeconds) {
+        this.start = new PipelineStage("start", startConcurrency, queueCapacity,
+                                       Thread.ofVirtual().name("case-migration-start-", 0).factory());
+        this.transform = new PipelineStage("transform", transformConcurrency, queueCapacity,
+                                           Thread.ofPlatform().name("case-migration-transform-", 0).factory());
+        this.submit = new PipelineStage("submit", submitConcurrency, queueCapacity,
+                                        Thread.ofVirtual().name("case-migration-submit-", 0).factory());
+
+        if (reportIntervalSeconds > 0) {
+            this.reporter = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("case-migration-pipeline-report").daemon(true).factory()
+            );
+            this.reporter.scheduleAtFixedRate(this::report, reportIntervalSeconds, reportIntervalSeconds,
+                                              TimeUnit.SECONDS);
+        } else {
+            this.reporter = null;
+        }
+    }
+
+    /**
+     * Queues a case on the start stage. The completion is called once per case, with the result of the submit
+     * step or with the first failure, which stops the case going through later stages.
+     */
+    public <S, T, R> void submit(Supplier<S> startStep,
+                                 Function<S, T> transformStep,
+                                 Function<T, R> submitStep,
+                                 BiConsumer<R, Exception> completion) {
+        BiConsumer<R, Exception> once = completeOnce(completion);
+        start.execute(() -> runStep(start, startStep, once, started -> transform.execute(
+            () -> runStep(transform, () -> transformStep.apply(started), once, transformed -> submit.execute(
+                () -> runStep(submit, () -> submitStep.apply(transformed), once,
+                              submitted -> once.accept(submitted, null)))))));
+    }
+
+    public List<PipelineStage> getStages() {
+        return List.of(start, transform, submit);
+    }
+
+    public void report() {
+        log.info("Case update pipeline - {}; {}; {}", start, transform, submit);
+    }
+
+    @Override
+    public void close() {
+        start.close();
+        transform.close();
+        submit.close();
+        if (reporter != null) {
+            reporter.shutdownNow();
+        }
+        report();
+    }
+
+    /**
+     * Runs a case's step and hands its result on. Any failure, including one handing the result to the next
+     * stage, completes the case. An {@link Error} fails the case in the finally block before it is rethrown, so
+     * the case is never left in flight, holding back the checkpoint and the drain at the end of the run.
+     */
+    private static <V, R> void runStep(PipelineStage stage, Supplier<V> step, BiConsumer<R, Exception> completion,
+                                       Consumer<V> next) {
+        boolean completed = false;
+        Error error = null;
+        try {
+            next.accept(timed(stage, step));
+            completed = true;
+        } catch (Exception e) {
+            completed = true;
+            completion.accept(null, e);
+        } catch (Error e) {
+            error = e;
+            throw e;
+        } finally {
+            if (!completed) {
+                completion.accept(null, new CaseMigrationException("Case update stopped by " + error, error));
+            }
+        }
+    }
+
+    /**
+     * A stage running on the submitting thread hands an {@link Error} back up through the stages before it, which
+     * must not complete the case again.
+     */
+    private static <R> BiConsumer<R, Exception> completeOnce(BiConsumer<R, Exception> completion) {
+        AtomicBoolean completed = new AtomicBoolean();
+        return (result, error) -> {
+            if (completed.compareAndSet(false, true)) {
+                completion.accept(result, error);
+            }
+        };
+    }
+
+    private static <V> V timed(PipelineStage stage, Supplier<V> step) {
+        long startNanos = System.nanoTime();
+        try {
+            return step.get();
+        } finally {
+            stage.recordLatency(System.nanoTime() - startNanos);
+        }
+    }
+}
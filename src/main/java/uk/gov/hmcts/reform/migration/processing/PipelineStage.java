@@ -0,0 +1,74 @@
+package uk.gov.hmcts.reform.migration.processing;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * One stage of a {@link CaseUpdatePipeline}: a bounded executor plus the latency of the work it has run.
+ */
+public class PipelineStage implements AutoCloseable {
+
+    private final String name;
+
+    private final BoundedExecutor executor;
+
+    private final AtomicLong completed = new AtomicLong();
+
+    private final AtomicLong totalNanos = new AtomicLong();
+
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    PipelineStage(String name, int concurrency, int queueCapacity, ThreadFactory threadFactory) {
+        this.name = name;
+        this.executor = new BoundedExecutor(concurrency, queueCapacity, threadFactory);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueueDepth();
+    }
+
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    public long getCompletedCount() {
+        return completed.get();
+    }
+
+    public double getMeanLatencyMillis() {
+        long count = completed.get();
+        return count == 0 ? 0 : (double) TimeUnit.NANOSECONDS.toMicros(totalNanos.get()) / count / 1000;
+    }
+
+    public double getMaxLatencyMillis() {
+        return TimeUnit.NANOSECONDS.toMicros(maxNanos.get()) / 1000.0;
+    }
+
+    void execute(Runnable task) {
+        executor.execute(task);
+    }
+
+    void recordLatency(long nanos) {
+        completed.incrementAndGet();
+        totalNanos.addAndGet(nanos);
+        maxNanos.accumulate(nanos);
+    }
+
+    @Override
+    public void close() {
+        executor.close();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: queued %d, active %d, completed %d, mean %.1f ms, max %.1f ms",
+                             name, getQueueDepth(), getActiveCount(), getCompletedCount(),
+                             getMeanLatencyMillis(), getMaxLatencyMillis());
+    }
+}
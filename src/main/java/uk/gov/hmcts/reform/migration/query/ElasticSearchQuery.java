@@ -2,16 +2,20 @@ package uk.gov.hmcts.reform.migration.query;
 
 import lombok.Builder;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
 @Builder
 public class ElasticSearchQuery {
 
     private static final String START_QUERY = """
         {
           "query": {
-            "match_all": {}
+            %s
           },
           "_source": [
-            "reference"
+            %s
           ],
           "size": %s,
           "sort": [
@@ -21,6 +25,14 @@ public class ElasticSearchQuery {
           ]
           """;
 
+    private static final String DEFAULT_SOURCE = "\"reference\"";
+
+    private static final String MATCH_ALL = "\"match_all\": {}";
+
+    private static final String REFERENCE_RANGE = "\"range\": {\"reference.keyword\": {%s}}";
+
+    private static final String BOOL_FILTER = "\"bool\": {\"filter\": [%s]}";
+
     private static final String END_QUERY = "\n}";
 
     private static final String SEARCH_AFTER = "\"search_after\": [%s]";
@@ -28,6 +40,9 @@ public class ElasticSearchQuery {
     private String searchAfterValue;
     private int size;
     private boolean initialSearch;
+    private ReferenceRange referenceRange;
+    private String filter;
+    private List<String> sourceFields;
 
     public String getQuery() {
         if (initialSearch) {
@@ -38,10 +53,43 @@ public class ElasticSearchQuery {
     }
 
     private String getInitialQuery() {
-        return String.format(START_QUERY, size) + END_QUERY;
+        return getStartQuery() + END_QUERY;
     }
 
     private String getSubsequentQuery() {
-        return String.format(START_QUERY, size) + "," + String.format(SEARCH_AFTER, searchAfterValue) + END_QUERY;
+        return getStartQuery() + "," + String.format(SEARCH_AFTER, searchAfterValue) + END_QUERY;
+    }
+
+    private String getStartQuery() {
+        return String.format(START_QUERY, getQueryClause(), getSource(), size);
+    }
+
+    private String getSource() {
+        if (sourceFields == null || sourceFields.isEmpty()) {
+            return DEFAULT_SOURCE;
+        }
+        return sourceFields.stream()
+            .map(String::strip)
+            .map(field -> "\"" + field + "\"")
+            .collect(Collectors.joining(",\n    "));
+    }
+
+    private String getQueryClause() {
+        boolean ranged = referenceRange != null && !referenceRange.isUnbounded();
+        if (filter == null || filter.isBlank()) {
+            return ranged ? getRangeClause() : MATCH_ALL;
+        }
+        return String.format(BOOL_FILTER, ranged ? "{" + getRangeClause() + "}, " + filter : filter);
+    }
+
+    private String getRangeClause() {
+        List<String> bounds = new ArrayList<>();
+        if (referenceRange.from() != null) {
+            bounds.add(String.format("\"gte\": \"%s\"", referenceRange.from()));
+        }
+        if (referenceRange.to() != null) {
+            bounds.add(String.format("\"lt\": \"%s\"", referenceRange.to()));
+        }
+        return String.format(REFERENCE_RANGE, String.join(", ", bounds));
     }
 }
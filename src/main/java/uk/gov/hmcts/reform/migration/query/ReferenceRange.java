@@ -0,0 +1,59 @@
+package uk.gov.hmcts.reform.migration.query;
+
+import uk.gov.hmcts.reform.domain.exception.CaseMigrationException;
+
+/**
+ * Half-open range of 16 digit case references, compared as keywords. All references have the same length,
+ * so keyword order matches numeric order. A null bound leaves that side of the range open, which the first and
+ * last shards use so that every reference belongs to exactly one shard.
+ */
+public record ReferenceRange(String from, String to) {
+
+    public static final ReferenceRange ALL = new ReferenceRange(null, null);
+
+    private static final long SMALLEST_REFERENCE = 1_000_000_000_000_000L;
+
+    private static final long LARGEST_REFERENCE = 9_999_999_999_999_999L;
+
+    /**
+     * Splits the references between the first and last reference evenly between the shards. Case references
+     * are not spread over all 16 digit numbers, so the bounds must be the lowest and highest reference of the
+     * case type and are required once there is more than one shard. They must stay the same for every run of
+     * the job, otherwise a resumed shard would search a different slice than the one it checkpointed.
+     */
+    public static ReferenceRange forShard(int shardIndex, int shardCount, Long firstReference, Long lastReference) {
+        if (shardCount < 1 || shardIndex < 0 || shardIndex >= shardCount) {
+            throw new CaseMigrationException(
+                String.format("Invalid shard %s of %s, the index must be between 0 and count - 1",
+                              shardIndex, shardCount));
+        }
+        if (shardCount == 1) {
+            return ALL;
+        }
+        if (firstReference == null || lastReference == null) {
+            throw new CaseMigrationException(
+                "The first and last reference of the case type are required to split it between shards");
+        }
+        if (firstReference < SMALLEST_REFERENCE || lastReference > LARGEST_REFERENCE) {
+            throw new CaseMigrationException("The shard range must be given as 16 digit case references");
+        }
+        if (firstReference > lastReference) {
+            throw new CaseMigrationException("The first reference of the shard range is after the last one");
+        }
+
+        long span = lastReference - firstReference + 1;
+        String from = shardIndex == 0 ? null : String.valueOf(shardStart(firstReference, span, shardCount, shardIndex));
+        String to = shardIndex == shardCount - 1
+            ? null
+            : String.valueOf(shardStart(firstReference, span, shardCount, shardIndex + 1));
+        return new ReferenceRange(from, to);
+    }
+
+    public boolean isUnbounded() {
+        return from == null && to == null;
+    }
+
+    private static long shardStart(long firstReference, long span, int shardCount, int shardIndex) {
+        return firstReference + span / shardCount * shardIndex + Math.min(shardIndex, span % shardCount);
+    }
+}
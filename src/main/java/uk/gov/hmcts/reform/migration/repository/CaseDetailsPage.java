@@ -0,0 +1,67 @@
+package uk.gov.hmcts.reform.migration.repository;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import uk.gov.hmcts.reform.ccd.client.model.CaseDetails;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The cases of one search result page, read from the response with a streaming parser. Each case is bound to
+ * {@code CaseDetails} as soon as the parser reaches it; fields outside the cases, and the data classification
+ * and supplementary data of each case, are skipped without being decoded.
+ */
+public record CaseDetailsPage(int total, List<CaseDetails> cases) {
+
+    public static final CaseDetailsPage EMPTY = new CaseDetailsPage(0, List.of());
+
+    /**
+     * A reader binding single cases with the application's Jackson configuration, minus the skipped fields.
+     */
+    public static ObjectReader caseReader(ObjectMapper objectMapper) {
+        return objectMapper.copy()
+            .addMixIn(CaseDetails.class, SkippedCaseFields.class)
+            .readerFor(CaseDetails.class)
+            .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    }
+
+    public static CaseDetailsPage parse(InputStream response, ObjectReader caseReader) throws IOException {
+        int total = 0;
+        List<CaseDetails> cases = new ArrayList<>();
+
+        try (JsonParser parser = caseReader.createParser(response)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return EMPTY;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("total".equals(field) && value.isNumeric()) {
+                    total = parser.getIntValue();
+                } else if ("cases".equals(field) && value == JsonToken.START_ARRAY) {
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        cases.add(caseReader.readValue(parser));
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return new CaseDetailsPage(total, cases);
+    }
+
+    public boolean isEmpty() {
+        return cases.isEmpty();
+    }
+
+    @JsonIgnoreProperties({"data_classification", "supplementary_data"})
+    private abstract static class SkippedCaseFields {
+    }
+}
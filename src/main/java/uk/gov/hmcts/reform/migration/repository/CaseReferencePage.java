@@ -0,0 +1,78 @@
+package uk.gov.hmcts.reform.migration.repository;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * The case references of one search result page, read from the response with a streaming parser. Only the
+ * {@code total} and the {@code id} of each case are decoded; everything else, including case data, is skipped.
+ */
+public record CaseReferencePage(int total, long[] references, int size) {
+
+    public static final CaseReferencePage EMPTY = new CaseReferencePage(0, new long[0], 0);
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    /**
+     * Parses a search response, reusing {@code buffer} for the references when it is large enough.
+     */
+    public static CaseReferencePage parse(InputStream response, long[] buffer) throws IOException {
+        int total = 0;
+        long[] references = buffer;
+        int size = 0;
+
+        try (JsonParser parser = JSON_FACTORY.createParser(response)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return EMPTY;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("total".equals(field) && value.isNumeric()) {
+                    total = parser.getIntValue();
+                } else if ("cases".equals(field) && value == JsonToken.START_ARRAY) {
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        long reference = readId(parser);
+                        if (size == references.length) {
+                            references = Arrays.copyOf(references, Math.max(16, size * 2));
+                        }
+                        references[size++] = reference;
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return new CaseReferencePage(total, references, size);
+    }
+
+    private static long readId(JsonParser parser) throws IOException {
+        long id = 0;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("id".equals(field)) {
+                id = value == JsonToken.VALUE_STRING ? Long.parseLong(parser.getText()) : parser.getLongValue();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        if (id == 0) {
+            throw new IOException("Search result case has no id");
+        }
+        return id;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public long last() {
+        return references[size - 1];
+    }
+}
@@ -1,87 +1,358 @@
 package uk.gov.hmcts.reform.migration.repository;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import feign.FeignException;
+import feign.Response;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
 import uk.gov.hmcts.reform.authorisation.generators.AuthTokenGenerator;
-import uk.gov.hmcts.reform.ccd.client.CoreCaseDataApi;
 import uk.gov.hmcts.reform.ccd.client.model.CaseDetails;
-import uk.gov.hmcts.reform.ccd.client.model.SearchResult;
+import uk.gov.hmcts.reform.domain.exception.CaseMigrationException;
+import uk.gov.hmcts.reform.migration.ccd.AdaptiveRateLimiter;
+import uk.gov.hmcts.reform.migration.ccd.CaseSearchApi;
+import uk.gov.hmcts.reform.migration.metrics.MigrationMetrics;
 import uk.gov.hmcts.reform.migration.query.ElasticSearchQuery;
+import uk.gov.hmcts.reform.migration.query.ReferenceRange;
+import uk.gov.hmcts.reform.migration.service.DataMigrationService;
 
-import java.util.ArrayList;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 @Repository
 @Slf4j
 public class ElasticSearchRepository {
 
-    private final CoreCaseDataApi coreCaseDataApi;
+    private static final List<String> REFERENCE_ONLY = List.of("reference");
+
+    private final CaseSearchApi caseSearchApi;
 
     private final AuthTokenGenerator authTokenGenerator;
 
+    private final AdaptiveRateLimiter rateLimiter;
+
+    private final MigrationMetrics migrationMetrics;
+
+    private final DataMigrationService<?> dataMigrationService;
+
+    private final ObjectReader caseReader;
+
     private final int querySize;
 
     private final int caseProcessLimit;
 
+    private final ReferenceRange referenceRange;
+
+    private final List<String> sourceFields;
+
+    private final int prefetchDepth;
+
     @Autowired
-    public ElasticSearchRepository(CoreCaseDataApi coreCaseDataApi,
+    public ElasticSearchRepository(CaseSearchApi caseSearchApi,
                                    AuthTokenGenerator authTokenGenerator,
+                                   AdaptiveRateLimiter rateLimiter,
+                                   MigrationMetrics migrationMetrics,
+                                   DataMigrationService<?> dataMigrationService,
+                                   ObjectMapper objectMapper,
                                    @Value("${case-migration.elasticsearch.querySize}") int querySize,
-                                   @Value("${case-migration.processing.limit}") int caseProcessLimit) {
-        this.coreCaseDataApi = coreCaseDataApi;
+                                   @Value("${case-migration.processing.limit}") int caseProcessLimit,
+                                   @Value("${case-migration.sharding.index:0}") int shardIndex,
+                                   @Value("${case-migration.sharding.count:1}") int shardCount,
+                                   @Value("${case-migration.sharding.firstReference:}") Long firstReference,
+                                   @Value("${case-migration.sharding.lastReference:}") Long lastReference,
+                                   @Value("${case-migration.elasticsearch.sourceFields:reference}")
+                                   List<String> sourceFields,
+                                   @Value("${case-migration.elasticsearch.prefetchDepth:1}") int prefetchDepth) {
+        this.caseSearchApi = caseSearchApi;
         this.authTokenGenerator = authTokenGenerator;
+        this.rateLimiter = rateLimiter;
+        this.migrationMetrics = migrationMetrics;
+        this.dataMigrationService = dataMigrationService;
+        this.caseReader = CaseDetailsPage.caseReader(objectMapper);
         this.querySize = querySize;
         this.caseProcessLimit = caseProcessLimit;
+        this.referenceRange = ReferenceRange.forShard(shardIndex, shardCount, firstReference, lastReference);
+        this.sourceFields = sourceFields;
+        this.prefetchDepth = prefetchDepth;
+        if (shardCount > 1) {
+            log.info("Searching shard {} of {}, references from {} to {}", shardIndex, shardCount,
+                     referenceRange.from(), referenceRange.to());
+        }
     }
 
     public List<CaseDetails> findCaseByCaseType(String userToken, String caseType) {
-        ElasticSearchQuery elasticSearchQuery = ElasticSearchQuery.builder()
-            .initialSearch(true)
-            .size(querySize)
-            .build();
+        List<CaseDetails> caseDetails;
+        try (Stream<CaseDetails> cases = streamCaseByCaseType(userToken, caseType)) {
+            caseDetails = cases.collect(Collectors.toList());
+        }
+        log.info("The Case Migration has processed caseDetails {}.", caseDetails.size());
+        return caseDetails;
+    }
 
+    /**
+     * Lazily pages through the case type using search_after. With a prefetch depth of zero only the current page
+     * is held and the next one is requested once the consumer has drained it, so a short-circuiting operation such
+     * as {@code limit} stops the paging as well. Otherwise up to that many pages are read ahead on a separate
+     * thread while the current page is processed; closing the stream stops the read-ahead.
+     */
+    public Stream<CaseDetails> streamCaseByCaseType(String userToken, String caseType) {
+        return streamCaseByCaseType(userToken, caseType, null);
+    }
+
+    public Stream<CaseDetails> streamCaseByCaseType(String userToken, String caseType, String searchAfterValue) {
         log.info("Processing the Case Migration search for case type {}.", caseType);
-        String authToken = authTokenGenerator.generate();
-
-        SearchResult searchResult = coreCaseDataApi.searchCases(userToken,
-                                                                authToken,
-                                                                caseType, elasticSearchQuery.getQuery()
-        );
-
-        List<CaseDetails> caseDetails = new ArrayList<>();
-
-        if (searchResult != null && searchResult.getTotal() > 0) {
-            List<CaseDetails> searchResultCases = searchResult.getCases();
-            caseDetails.addAll(searchResultCases);
-            String searchAfterValue = searchResultCases.get(searchResultCases.size() - 1).getId().toString();
-
-            boolean keepSearching;
-            do {
-                ElasticSearchQuery subsequentElasticSearchQuery = ElasticSearchQuery.builder()
-                    .initialSearch(false)
-                    .size(querySize)
-                    .searchAfterValue(searchAfterValue)
-                    .build();
-
-                SearchResult subsequentSearchResult =
-                    coreCaseDataApi.searchCases(userToken,
-                                                authToken,
-                                                caseType, subsequentElasticSearchQuery.getQuery()
-                    );
-
-                keepSearching = false;
-                if (subsequentSearchResult != null) {
-                    caseDetails.addAll(subsequentSearchResult.getCases());
-                    keepSearching = subsequentSearchResult.getCases().size() > 0;
-                    if (keepSearching) {
-                        searchAfterValue = caseDetails.get(caseDetails.size() - 1).getId().toString();
-                    }
+        String filter = getFilter();
+        SearchAfterIterator iterator = new SearchAfterIterator(userToken, authTokenGenerator.generate(), caseType,
+                                                               searchAfterValue, filter);
+        return StreamSupport.stream(
+            Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL),
+            false
+        ).onClose(iterator::close);
+    }
+
+    /**
+     * Pages through the case type like {@link #streamCaseByCaseType}, but only requests and decodes the case
+     * references, which are read straight into recycled {@code long[]} page buffers.
+     */
+    public LongStream streamCaseReferencesByCaseType(String userToken, String caseType, String searchAfterValue) {
+        log.info("Processing the Case Migration reference search for case type {}.", caseType);
+        String filter = getFilter();
+        ReferenceIterator iterator = new ReferenceIterator(userToken, authTokenGenerator.generate(), caseType,
+                                                           searchAfterValue, filter);
+        return StreamSupport.longStream(
+            Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL),
+            false
+        ).onClose(iterator::close);
+    }
+
+    private String getFilter() {
+        String filter = dataMigrationService.query();
+        if (filter == null || filter.isBlank()) {
+            return null;
+        }
+        filter = filter.strip();
+        if (!filter.startsWith("{") || !filter.endsWith("}")) {
+            throw new CaseMigrationException("Migration query must be a JSON object: " + filter);
+        }
+        log.info("Filtering the Case Migration search with {}", filter);
+        return filter;
+    }
+
+    private CaseDetailsPage search(String userToken, String authToken, String caseType, String searchAfterValue,
+                                   String filter) {
+        String query = buildQuery(searchAfterValue, filter, sourceFields);
+
+        return searchPage(userToken, authToken, caseType, query, CaseDetailsPage.EMPTY,
+                          body -> CaseDetailsPage.parse(body, caseReader));
+    }
+
+    private CaseReferencePage searchReferences(String userToken, String authToken, String caseType,
+                                               String searchAfterValue, String filter, long[] buffer) {
+        String query = buildQuery(searchAfterValue, filter, REFERENCE_ONLY);
+
+        return searchPage(userToken, authToken, caseType, query, CaseReferencePage.EMPTY,
+                          body -> CaseReferencePage.parse(body, buffer));
+    }
+
+    /**
+     * Runs a search and reads the page straight from the response body, so nothing but the parsed page is held.
+     */
+    private <P> P searchPage(String userToken, String authToken, String caseType, String query, P empty,
+                             PageParser<P> parser) {
+        return rateLimiter.call(() -> migrationMetrics.recordSearchPage(() -> {
+            try (Response response = caseSearchApi.searchCases(userToken, authToken, caseType, query)) {
+                if (response.status() >= 300) {
+                    throw FeignException.errorStatus("searchCases", response);
+                }
+                if (response.body() == null) {
+                    return empty;
+                }
+                try (InputStream body = response.body().asInputStream()) {
+                    return parser.parse(body);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to read search results for " + caseType, e);
+            }
+        }));
+    }
+
+    private String buildQuery(String searchAfterValue, String filter, List<String> fields) {
+        return ElasticSearchQuery.builder()
+            .initialSearch(searchAfterValue == null)
+            .size(querySize)
+            .searchAfterValue(searchAfterValue)
+            .referenceRange(referenceRange)
+            .filter(filter)
+            .sourceFields(fields)
+            .build()
+            .getQuery();
+    }
+
+    private <P> PagePrefetcher<P> prefetcher(Supplier<P> pages) {
+        return prefetchDepth > 0 ? new PagePrefetcher<>(pages, prefetchDepth) : null;
+    }
+
+    private class SearchAfterIterator implements Iterator<CaseDetails>, AutoCloseable {
+
+        private final String userToken;
+        private final String authToken;
+        private final String caseType;
+        private final String filter;
+        private final PagePrefetcher<List<CaseDetails>> prefetcher;
+
+        private Iterator<CaseDetails> page = Collections.emptyIterator();
+        private boolean exhausted;
+
+        // paging state, only touched by the thread fetching the pages
+        private String searchAfterValue;
+        private boolean initialSearch = true;
+
+        SearchAfterIterator(String userToken, String authToken, String caseType, String searchAfterValue,
+                            String filter) {
+            this.userToken = userToken;
+            this.authToken = authToken;
+            this.caseType = caseType;
+            this.searchAfterValue = searchAfterValue;
+            this.filter = filter;
+            this.prefetcher = prefetcher(this::fetchNextPage);
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!page.hasNext() && !exhausted) {
+                List<CaseDetails> cases = prefetcher == null ? fetchNextPage() : prefetcher.take();
+                if (cases == null) {
+                    exhausted = true;
+                } else {
+                    page = cases.iterator();
                 }
-            } while (keepSearching);
+            }
+            return page.hasNext();
         }
-        log.info("The Case Migration has processed caseDetails {}.", caseDetails.size());
-        return caseDetails;
+
+        @Override
+        public CaseDetails next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return page.next();
+        }
+
+        @Override
+        public void close() {
+            if (prefetcher != null) {
+                prefetcher.close();
+            }
+        }
+
+        private List<CaseDetails> fetchNextPage() {
+            CaseDetailsPage fetched = search(userToken, authToken, caseType, searchAfterValue, filter);
+
+            if (fetched.isEmpty() || initialSearch && fetched.total() <= 0) {
+                return null;
+            }
+            if (initialSearch) {
+                migrationMetrics.expectCases(Math.min(fetched.total(), caseProcessLimit));
+            }
+            initialSearch = false;
+            List<CaseDetails> cases = fetched.cases();
+            searchAfterValue = cases.get(cases.size() - 1).getId().toString();
+            return cases;
+        }
+    }
+
+    private class ReferenceIterator implements PrimitiveIterator.OfLong, AutoCloseable {
+
+        private final String userToken;
+        private final String authToken;
+        private final String caseType;
+        private final String filter;
+        private final PagePrefetcher<CaseReferencePage> prefetcher;
+        private final BlockingQueue<long[]> freeBuffers = new LinkedBlockingQueue<>();
+
+        private CaseReferencePage page = CaseReferencePage.EMPTY;
+        private int position;
+        private boolean exhausted;
+
+        // paging state, only touched by the thread fetching the pages
+        private String searchAfterValue;
+        private boolean initialSearch = true;
+
+        ReferenceIterator(String userToken, String authToken, String caseType, String searchAfterValue,
+                          String filter) {
+            this.userToken = userToken;
+            this.authToken = authToken;
+            this.caseType = caseType;
+            this.searchAfterValue = searchAfterValue;
+            this.filter = filter;
+            this.prefetcher = prefetcher(this::fetchNextPage);
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (position == page.size() && !exhausted) {
+                if (page.references().length > 0) {
+                    freeBuffers.add(page.references());
+                }
+                CaseReferencePage next = prefetcher == null ? fetchNextPage() : prefetcher.take();
+                page = next == null ? CaseReferencePage.EMPTY : next;
+                position = 0;
+                exhausted = next == null;
+            }
+            return position < page.size();
+        }
+
+        @Override
+        public long nextLong() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return page.references()[position++];
+        }
+
+        @Override
+        public void close() {
+            if (prefetcher != null) {
+                prefetcher.close();
+            }
+        }
+
+        private CaseReferencePage fetchNextPage() {
+            long[] buffer = freeBuffers.poll();
+            CaseReferencePage fetched = searchReferences(userToken, authToken, caseType, searchAfterValue, filter,
+                                                         buffer == null ? new long[Math.max(1, querySize)] : buffer);
+
+            if (fetched.isEmpty() || initialSearch && fetched.total() <= 0) {
+                return null;
+            }
+            if (initialSearch) {
+                migrationMetrics.expectCases(Math.min(fetched.total(), caseProcessLimit));
+            }
+            initialSearch = false;
+            searchAfterValue = String.valueOf(fetched.last());
+            return fetched;
+        }
+    }
+
+    @FunctionalInterface
+    private interface PageParser<P> {
+        P parse(InputStream body) throws IOException;
     }
 }
@@ -5,6 +5,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
 import uk.gov.hmcts.reform.idam.client.IdamClient;
+import uk.gov.hmcts.reform.idam.client.models.UserInfo;
+import uk.gov.hmcts.reform.migration.auth.AuthUtil;
 
 @Repository
 @Slf4j
@@ -29,4 +31,8 @@ public class IdamRepository {
         return idamClient.getAccessToken(idamUsername, idamPassword);
     }
 
+    public UserInfo getUserInfo(String userToken) {
+        return idamClient.getUserInfo(AuthUtil.getBearerToken(userToken));
+    }
+
 }
@@ -0,0 +1,113 @@
+package uk.gov.hmcts.reform.migration.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import uk.gov.hmcts.reform.domain.exception.CaseMigrationException;
+
+import java.time.Duration;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+/**
+ * Reads pages ahead of the consumer on a virtual thread. At most {@code depth} pages are fetched and not yet
+ * taken, so the next page is usually already in memory when the consumer reaches the end of the current one.
+ * The page source returns {@code null} once there are no more pages.
+ */
+@Slf4j
+class PagePrefetcher<P> implements AutoCloseable {
+
+    private static final Object END = new Object();
+
+    private static final Duration STOP_TIMEOUT = Duration.ofSeconds(10);
+
+    private final Supplier<P> source;
+
+    private final Semaphore permits;
+
+    private final BlockingQueue<Object> pages = new LinkedBlockingQueue<>();
+
+    private final Thread fetcher;
+
+    private boolean finished;
+
+    PagePrefetcher(Supplier<P> source, int depth) {
+        this.source = source;
+        this.permits = new Semaphore(depth);
+        this.fetcher = Thread.ofVirtual().name("case-migration-prefetch").start(this::fetch);
+    }
+
+    /**
+     * Returns the next page, waiting for it if it has not arrived yet, or {@code null} after the last page.
+     * A failure to fetch a page is rethrown here.
+     */
+    @SuppressWarnings("unchecked")
+    P take() {
+        if (finished) {
+            return null;
+        }
+
+        Object page;
+        try {
+            page = pages.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CaseMigrationException("Interrupted while waiting for the next search page", e);
+        }
+        permits.release();
+
+        if (page == END) {
+            finished = true;
+            return null;
+        }
+        if (page instanceof Failure failure) {
+            finished = true;
+            if (failure.exception() instanceof RuntimeException e) {
+                throw e;
+            }
+            if (failure.exception() instanceof Error e) {
+                throw e;
+            }
+            throw new CaseMigrationException("Failed to fetch the next search page", failure.exception());
+        }
+        return (P) page;
+    }
+
+    /**
+     * Stops the fetcher and waits for it, so no search is still being made for a stream that has been closed.
+     */
+    @Override
+    public void close() {
+        fetcher.interrupt();
+        try {
+            if (!fetcher.join(STOP_TIMEOUT)) {
+                log.warn("Search page prefetch still running {} s after the stream was closed",
+                         STOP_TIMEOUT.toSeconds());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void fetch() {
+        try {
+            while (true) {
+                permits.acquire();
+                P page = source.get();
+                if (page == null) {
+                    pages.add(END);
+                    return;
+                }
+                pages.add(page);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Throwable e) {
+            // anything the fetcher dies with must reach the consumer, which otherwise waits for a page forever
+            pages.add(new Failure(e));
+        }
+    }
+
+    private record Failure(Throwable exception) {
+    }
+}
@@ -0,0 +1,106 @@
+package uk.gov.hmcts.reform.migration.result;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.stream.LongStream;
+
+/**
+ * Thread-safe, append-only list of case references stored as primitive longs in fixed-size chunks, so tracking
+ * millions of cases costs 8 bytes per case and never copies the whole list to grow it.
+ */
+public class CaseIdList {
+
+    private static final int CHUNK_SIZE = 8192;
+
+    private final List<long[]> chunks = new ArrayList<>();
+
+    private long[] current;
+
+    private int size;
+
+    public synchronized void add(long id) {
+        int position = size % CHUNK_SIZE;
+        if (position == 0) {
+            current = new long[CHUNK_SIZE];
+            chunks.add(current);
+        }
+        current[position] = id;
+        size++;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public synchronized long[] toArray() {
+        long[] ids = new long[size];
+        for (int chunk = 0, copied = 0; copied < size; chunk++) {
+            int length = Math.min(CHUNK_SIZE, size - copied);
+            System.arraycopy(chunks.get(chunk), 0, ids, copied, length);
+            copied += length;
+        }
+        return ids;
+    }
+
+    public LongStream stream() {
+        return LongStream.of(toArray());
+    }
+
+    /**
+     * Reads a file with one case reference per line, as written by {@link #writeTo}. Blank lines and lines
+     * starting with {@code #} are ignored.
+     */
+    public static CaseIdList readFrom(Path file) throws IOException {
+        CaseIdList ids = new CaseIdList();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.strip();
+                if (!line.isEmpty() && !line.startsWith("#")) {
+                    ids.add(Long.parseLong(line));
+                }
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Writes one case reference per line, replacing the file if it exists.
+     */
+    public void writeTo(Path file) throws IOException {
+        long[] ids = toArray();
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (long id : ids) {
+                writer.write(Long.toString(id));
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * The first {@code limit} references followed by the number left out, short enough for a log line.
+     */
+    public synchronized String toString(int limit) {
+        StringJoiner joiner = new StringJoiner(", ", "[", "]");
+        for (int i = 0; i < Math.min(limit, size); i++) {
+            joiner.add(Long.toString(chunks.get(i / CHUNK_SIZE)[i % CHUNK_SIZE]));
+        }
+        return size > limit ? joiner + " and " + (size - limit) + " more" : joiner.toString();
+    }
+
+    @Override
+    public String toString() {
+        return toString(Integer.MAX_VALUE);
+    }
+}
@@ -0,0 +1,24 @@
+package uk.gov.hmcts.reform.migration.result;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * One line of the outcome journal.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record CaseOutcome(long id,
+                          String caseType,
+                          String jurisdiction,
+                          Outcome outcome,
+                          String reason,
+                          long latencyMillis,
+                          String timestamp) {
+
+    public enum Outcome {
+        MIGRATED,
+        SKIPPED,
+        UNCHANGED,
+        DRY_RUN,
+        FAILED
+    }
+}
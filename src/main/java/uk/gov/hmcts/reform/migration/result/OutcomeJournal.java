@@ -0,0 +1,108 @@
+package uk.gov.hmcts.reform.migration.result;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import uk.gov.hmcts.reform.domain.exception.CaseMigrationException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Append-only NDJSON journal with one {@link CaseOutcome} per processed case, for audit and for rebuilding the
+ * failed case list of a run.
+ */
+@Component
+@Slf4j
+public class OutcomeJournal {
+
+    private static final Set<CaseOutcome.Outcome> RESOLVED = EnumSet.of(
+        CaseOutcome.Outcome.MIGRATED, CaseOutcome.Outcome.SKIPPED, CaseOutcome.Outcome.UNCHANGED);
+
+    private final ObjectMapper objectMapper;
+
+    private final Path file;
+
+    private final int queueCapacity;
+
+    private final int batchSize;
+
+    @Autowired
+    public OutcomeJournal(ObjectMapper objectMapper,
+                          @Value("${case-migration.journal.file:}") String file,
+                          @Value("${case-migration.journal.queueCapacity:10000}") int queueCapacity,
+                          @Value("${case-migration.journal.batchSize:500}") int batchSize) {
+        this.objectMapper = objectMapper;
+        this.file = StringUtils.hasText(file) ? Path.of(file.trim()) : null;
+        this.queueCapacity = Math.max(queueCapacity, 1);
+        this.batchSize = Math.max(batchSize, 1);
+    }
+
+    public OutcomeJournalWriter open() {
+        if (file == null) {
+            return OutcomeJournalWriter.disabled();
+        }
+
+        try {
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                   StandardOpenOption.APPEND);
+            log.info("Writing case outcomes to {}", file);
+            return new OutcomeJournalWriter(objectMapper, channel, queueCapacity, batchSize);
+        } catch (IOException e) {
+            throw new CaseMigrationException("Unable to open outcome journal " + file, e);
+        }
+    }
+
+    /**
+     * Case references whose latest outcome in the journal is {@code FAILED}, in the order they first failed.
+     * A case that failed and later migrated, was skipped or was left unchanged, e.g. by a retry run appending to
+     * the same journal, is left out. A later dry run does not update the case, so its record does not count.
+     * Unreadable lines, such as one cut short by a crash, are ignored.
+     */
+    public CaseIdList readFailedCases(Path journal, String caseType) {
+        Set<Long> failed = new LinkedHashSet<>();
+        try (BufferedReader reader = Files.newBufferedReader(journal, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                CaseOutcome outcome = parse(line);
+                if (outcome == null || caseType != null && !caseType.equals(outcome.caseType())) {
+                    continue;
+                }
+                if (outcome.outcome() == CaseOutcome.Outcome.FAILED) {
+                    failed.add(outcome.id());
+                } else if (RESOLVED.contains(outcome.outcome())) {
+                    failed.remove(outcome.id());
+                }
+            }
+        } catch (IOException e) {
+            throw new CaseMigrationException("Unable to read outcome journal " + journal, e);
+        }
+
+        CaseIdList ids = new CaseIdList();
+        failed.forEach(ids::add);
+        return ids;
+    }
+
+    private CaseOutcome parse(String line) {
+        if (line.isBlank()) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(line, CaseOutcome.class);
+        } catch (IOException e) {
+            log.warn("Ignoring unreadable outcome journal line: {}", line);
+            return null;
+        }
+    }
+}
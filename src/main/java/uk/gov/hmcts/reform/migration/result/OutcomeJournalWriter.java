@@ -0,0 +1,129 @@
+package uk.gov.hmcts.reform.migration.result;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import uk.gov.hmcts.reform.domain.exception.CaseMigrationException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Hands outcomes to a single writer thread through a bounded queue. The writer drains whatever has queued up,
+ * up to the batch size, and appends it to the journal in one channel write, so update threads only pay for a
+ * queue insert and wait only if the writer falls a whole queue behind.
+ */
+@Slf4j
+public class OutcomeJournalWriter implements AutoCloseable {
+
+    private static final CaseOutcome END = new CaseOutcome(0, null, null, null, null, 0, null);
+
+    private final ObjectMapper objectMapper;
+
+    private final FileChannel channel;
+
+    private final BlockingQueue<CaseOutcome> queue;
+
+    private final int batchSize;
+
+    private final Thread writer;
+
+    private volatile boolean failed;
+
+    OutcomeJournalWriter(ObjectMapper objectMapper, FileChannel channel, int queueCapacity, int batchSize) {
+        this.objectMapper = objectMapper;
+        this.channel = channel;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.writer = Thread.ofPlatform().name("case-migration-journal").daemon(true).start(this::drain);
+    }
+
+    private OutcomeJournalWriter() {
+        this.objectMapper = null;
+        this.channel = null;
+        this.queue = null;
+        this.batchSize = 0;
+        this.writer = null;
+    }
+
+    public static OutcomeJournalWriter disabled() {
+        return new OutcomeJournalWriter();
+    }
+
+    public void record(CaseOutcome outcome) {
+        if (queue == null || failed) {
+            return;
+        }
+        try {
+            queue.put(outcome);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CaseMigrationException("Interrupted while recording the outcome of case " + outcome.id(), e);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (queue == null) {
+            return;
+        }
+        try {
+            queue.put(END);
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            try {
+                channel.force(false);
+                channel.close();
+            } catch (IOException e) {
+                log.error("Unable to close outcome journal", e);
+            }
+        }
+    }
+
+    private void drain() {
+        List<CaseOutcome> batch = new ArrayList<>(batchSize);
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(batchSize * 160);
+        try {
+            boolean running = true;
+            while (running) {
+                batch.add(queue.take());
+                queue.drainTo(batch, batchSize - 1);
+                running = batch.get(batch.size() - 1) != END;
+                if (!running) {
+                    batch.remove(batch.size() - 1);
+                }
+                write(batch, buffer);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void write(List<CaseOutcome> batch, ByteArrayOutputStream buffer) {
+        if (failed || batch.isEmpty()) {
+            return;
+        }
+        buffer.reset();
+        try {
+            for (CaseOutcome outcome : batch) {
+                objectMapper.writeValue(buffer, outcome);
+                buffer.write('\n');
+            }
+            ByteBuffer bytes = ByteBuffer.wrap(buffer.toByteArray());
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+        } catch (IOException e) {
+            failed = true;
+            log.error("Unable to write outcome journal, no further outcomes will be recorded", e);
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package uk.gov.hmcts.reform.migration.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+
+/**
+ * Copy-on-write view of a case's data for {@link InPlaceDataMigrationService}. Reads go straight to the data CCD
+ * returned; a write copies only the maps and lists on the path to the changed value, once per view, and shares
+ * everything else with the original, which is never modified. Writes that leave a value equal to what it was are
+ * not changes, so {@link #isChanged()} tells whether there is anything to submit.
+ *
+ * <p>Values returned by the getters are shared with the original data and must only be changed through this
+ * view.
+ */
+public final class CaseData {
+
+    private static final Object REMOVED = new Object();
+
+    private final Set<Object> copies = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    private Map<String, Object> data;
+
+    private boolean changed;
+
+    private CaseData(Map<String, Object> data) {
+        this.data = data;
+    }
+
+    public static CaseData of(Map<String, Object> data) {
+        return new CaseData(data == null ? new LinkedHashMap<>() : data);
+    }
+
+    /**
+     * The value at a path without {@code [*]}, or {@code null} when it is not there.
+     */
+    public Object get(CasePath path) {
+        if (!path.isSingle()) {
+            throw new IllegalArgumentException("Read every element of " + path + " with getAll");
+        }
+        Object node = data;
+        for (CasePath.Segment segment : path.segments()) {
+            node = child(node, segment);
+            if (node == null) {
+                return null;
+            }
+        }
+        return node;
+    }
+
+    public Object get(String path) {
+        return get(CasePath.of(path));
+    }
+
+    public <T> T get(CasePath path, Class<T> type) {
+        return type.cast(get(path));
+    }
+
+    public <T> T get(String path, Class<T> type) {
+        return get(CasePath.of(path), type);
+    }
+
+    /**
+     * Every value the path leads to, in collection order, leaving out elements that do not have it.
+     */
+    public List<Object> getAll(CasePath path) {
+        List<Object> values = new ArrayList<>();
+        collect(data, path.segments(), 0, values);
+        return values;
+    }
+
+    public List<Object> getAll(String path) {
+        return getAll(CasePath.of(path));
+    }
+
+    /**
+     * Sets the value at the path, adding maps on the way where fields are missing. With {@code [*]} the value is set
+     * in every element of the collection.
+     */
+    public void set(CasePath path, Object value) {
+        data = asMap(write(data, path.segments(), 0, current -> Objects.equals(current, value) ? current : value,
+                           true));
+    }
+
+    public void set(String path, Object value) {
+        set(CasePath.of(path), value);
+    }
+
+    /**
+     * Replaces each value the path leads to with the result of the function, which is not called where the
+     * value's parent is missing.
+     */
+    public void update(CasePath path, UnaryOperator<Object> function) {
+        data = asMap(write(data, path.segments(), 0, current -> {
+            Object updated = function.apply(current);
+            return Objects.equals(current, updated) ? current : updated;
+        }, false));
+    }
+
+    public void update(String path, UnaryOperator<Object> function) {
+        update(CasePath.of(path), function);
+    }
+
+    /**
+     * Removes the field or list element the path ends with, wherever it is there.
+     */
+    public void remove(CasePath path) {
+        data = asMap(write(data, path.segments(), 0, current -> REMOVED, false));
+    }
+
+    public void remove(String path) {
+        remove(CasePath.of(path));
+    }
+
+    public boolean isChanged() {
+        return changed;
+    }
+
+    /**
+     * The migrated data: the original map itself when nothing changed.
+     */
+    public Map<String, Object> toMap() {
+        return data;
+    }
+
+    private Object write(Object node, CasePath.Segment[] segments, int depth, UnaryOperator<Object> leaf,
+                         boolean create) {
+        CasePath.Segment segment = segments[depth];
+        boolean last = depth == segments.length - 1;
+        if (segment instanceof CasePath.Segment.Field field) {
+            if (!(node instanceof Map<?, ?> map)) {
+                return node;
+            }
+            boolean present = map.containsKey(field.name());
+            Object child = map.get(field.name());
+            if (last) {
+                Object updated = leaf.apply(child);
+                if (updated == child || updated == REMOVED && !present) {
+                    return node;
+                }
+                return put(map, field.name(), updated);
+            }
+            if (child != null) {
+                Object updated = write(child, segments, depth + 1, leaf, create);
+                return updated == child ? node : put(map, field.name(), updated);
+            }
+            if (!create) {
+                return node;
+            }
+            Map<?, ?> added = (Map<?, ?>) write(owned(new LinkedHashMap<>()), segments, depth + 1, leaf, true);
+            return added.isEmpty() ? node : put(map, field.name(), added);
+        }
+
+        int from = segment instanceof CasePath.Segment.Index index ? index.index() : 0;
+        if (!(node instanceof List<?> list) || from < 0) {
+            return node;
+        }
+        List<Object> target = null;
+        int to = segment instanceof CasePath.Segment.Index ? Math.min(from + 1, list.size()) : list.size();
+        for (int i = to - 1; i >= from; i--) {
+            Object child = list.get(i);
+            Object updated = last ? leaf.apply(child) : write(child, segments, depth + 1, leaf, create);
+            if (updated != child) {
+                target = target == null ? ownedCopy(list) : target;
+                if (updated == REMOVED) {
+                    target.remove(i);
+                } else {
+                    target.set(i, updated);
+                }
+                changed = true;
+            }
+        }
+        return target == null ? node : target;
+    }
+
+    private Map<String, Object> put(Map<?, ?> map, String field, Object value) {
+        Map<String, Object> target = ownedCopy(map);
+        if (value == REMOVED) {
+            target.remove(field);
+        } else {
+            target.put(field, value);
+        }
+        changed = true;
+        return target;
+    }
+
+    private void collect(Object node, CasePath.Segment[] segments, int depth, List<Object> values) {
+        if (node == null) {
+            return;
+        }
+        if (depth == segments.length) {
+            values.add(node);
+            return;
+        }
+        if (segments[depth] instanceof CasePath.Segment.Each) {
+            if (node instanceof List<?> list) {
+                for (Object element : list) {
+                    collect(element, segments, depth + 1, values);
+                }
+            }
+            return;
+        }
+        collect(child(node, segments[depth]), segments, depth + 1, values);
+    }
+
+    private static Object child(Object node, CasePath.Segment segment) {
+        if (segment instanceof CasePath.Segment.Field field) {
+            return node instanceof Map<?, ?> map ? map.get(field.name()) : null;
+        }
+        if (segment instanceof CasePath.Segment.Index index && node instanceof List<?> list) {
+            return index.index() >= 0 && index.index() < list.size() ? list.get(index.index()) : null;
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> ownedCopy(Map<?, ?> map) {
+        return copies.contains(map) ? (Map<String, Object>) map : owned(new LinkedHashMap<>((Map<String, Object>) map));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Object> ownedCopy(List<?> list) {
+        return copies.contains(list) ? (List<Object>) list : owned(new ArrayList<>(list));
+    }
+
+    private <C> C owned(C container) {
+        copies.add(container);
+        return container;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> asMap(Object root) {
+        return (Map<String, Object>) root;
+    }
+}
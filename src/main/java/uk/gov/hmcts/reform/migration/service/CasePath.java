@@ -0,0 +1,105 @@
+package uk.gov.hmcts.reform.migration.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A compiled path into case data, such as {@code applicant.address.PostCode} or
+ * {@code respondents[*].value.address.PostCode}. Dots separate map keys, {@code [n]} picks an element of a list
+ * and {@code [*]} every element, which is how the items of a CCD collection are reached. Paths are parsed once
+ * and cached, so a migration can look them up per case, though a {@code static final} field is cheaper still.
+ */
+public final class CasePath {
+
+    private static final Map<String, CasePath> COMPILED = new ConcurrentHashMap<>();
+
+    private final String expression;
+
+    private final Segment[] segments;
+
+    private CasePath(String expression, Segment[] segments) {
+        this.expression = expression;
+        this.segments = segments;
+    }
+
+    public static CasePath of(String expression) {
+        return COMPILED.computeIfAbsent(expression, CasePath::compile);
+    }
+
+    Segment[] segments() {
+        return segments;
+    }
+
+    boolean isSingle() {
+        for (Segment segment : segments) {
+            if (segment instanceof Segment.Each) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return expression;
+    }
+
+    private static CasePath compile(String expression) {
+        List<Segment> segments = new ArrayList<>();
+        int position = 0;
+        while (position < expression.length()) {
+            char next = expression.charAt(position);
+            if (next == '[') {
+                int end = expression.indexOf(']', position);
+                if (end < 0) {
+                    throw invalid(expression);
+                }
+                String index = expression.substring(position + 1, end).strip();
+                try {
+                    segments.add("*".equals(index) ? new Segment.Each() : new Segment.Index(Integer.parseInt(index)));
+                } catch (NumberFormatException e) {
+                    throw invalid(expression);
+                }
+                position = end + 1;
+            } else {
+                if (next == '.') {
+                    if (segments.isEmpty()) {
+                        throw invalid(expression);
+                    }
+                    position++;
+                }
+                int end = position;
+                while (end < expression.length() && expression.charAt(end) != '.' && expression.charAt(end) != '[') {
+                    end++;
+                }
+                if (end == position) {
+                    throw invalid(expression);
+                }
+                segments.add(new Segment.Field(expression.substring(position, end)));
+                position = end;
+            }
+        }
+        if (segments.isEmpty()) {
+            throw invalid(expression);
+        }
+        return new CasePath(expression, segments.toArray(new Segment[0]));
+    }
+
+    private static IllegalArgumentException invalid(String expression) {
+        return new IllegalArgumentException("Invalid case data path: " + expression);
+    }
+
+    sealed interface Segment {
+
+        record Field(String name) implements Segment {
+        }
+
+        record Index(int index) implements Segment {
+        }
+
+        record Each() implements Segment {
+        }
+    }
+}
@@ -9,4 +9,13 @@ public interface DataMigrationService<T> {
     Predicate<CaseDetails> accepts();
 
     T migrate(Map<String, Object> data);
+
+    /**
+     * Optional Elasticsearch query clause, e.g. {@code {"term": {"state.keyword": "Open"}}}, applied as a filter
+     * to the case search so that only candidate cases are fetched. {@link #accepts()} is still checked against
+     * every case returned.
+     */
+    default String query() {
+        return null;
+    }
 }
@@ -0,0 +1,28 @@
+package uk.gov.hmcts.reform.migration.service;
+
+import java.util.Map;
+
+/**
+ * A {@link DataMigrationService} that changes the case data through a copy-on-write {@link CaseData} view, rather
+ * than copying the map or mapping it to domain objects and back. Only the parts of the data that change are copied,
+ * and a case the migration leaves unchanged is not submitted at all.
+ *
+ * <pre>{@code
+ * private static final CasePath RESPONDENT_POSTCODES = CasePath.of("respondents[*].value.address.PostCode");
+ *
+ * public void migrate(CaseData data) {
+ *     data.update(RESPONDENT_POSTCODES, postcode -> postcode instanceof String value ? value.strip() : postcode);
+ * }
+ * }</pre>
+ */
+public interface InPlaceDataMigrationService extends DataMigrationService<Map<String, Object>> {
+
+    void migrate(CaseData data);
+
+    @Override
+    default Map<String, Object> migrate(Map<String, Object> data) {
+        CaseData caseData = CaseData.of(data);
+        migrate(caseData);
+        return caseData.toMap();
+    }
+}
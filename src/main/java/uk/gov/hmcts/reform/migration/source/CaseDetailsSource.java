@@ -0,0 +1,17 @@
+package uk.gov.hmcts.reform.migration.source;
+
+import uk.gov.hmcts.reform.ccd.client.model.CaseDetails;
+
+import java.util.stream.Stream;
+
+/**
+ * A source of whole cases, so {@code accepts()} can be applied before the start event.
+ */
+public non-sealed interface CaseDetailsSource extends CaseSource {
+
+    /**
+     * The cases of the case type after {@code searchAfter}, or from the start when it is {@code null}. Sources
+     * that are not read in reference order start from the beginning and rely on the checkpoint's completed cases.
+     */
+    Stream<CaseDetails> cases(String userToken, String caseType, String searchAfter);
+}
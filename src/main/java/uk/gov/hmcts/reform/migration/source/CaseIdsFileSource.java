@@ -0,0 +1,61 @@
+package uk.gov.hmcts.reform.migration.source;
+
+import lombok.extern.slf4j.Slf4j;
+import uk.gov.hmcts.reform.domain.exception.CaseMigrationException;
+import uk.gov.hmcts.reform.migration.metrics.MigrationMetrics;
+import uk.gov.hmcts.reform.migration.result.CaseIdList;
+import uk.gov.hmcts.reform.migration.result.OutcomeJournal;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.stream.LongStream;
+
+/**
+ * The case references to retry, read from a file with one reference per line such as a previous run's failed
+ * cases, or from an outcome journal ({@code .ndjson}), taking the cases whose latest outcome failed. They are
+ * sorted and de-duplicated, which keeps the checkpoint's ascending reference order.
+ */
+@Slf4j
+public class CaseIdsFileSource implements CaseReferenceSource {
+
+    private final Path file;
+
+    private final OutcomeJournal outcomeJournal;
+
+    private final MigrationMetrics migrationMetrics;
+
+    private final int caseProcessLimit;
+
+    public CaseIdsFileSource(Path file,
+                             OutcomeJournal outcomeJournal,
+                             MigrationMetrics migrationMetrics,
+                             int caseProcessLimit) {
+        this.file = file;
+        this.outcomeJournal = outcomeJournal;
+        this.migrationMetrics = migrationMetrics;
+        this.caseProcessLimit = caseProcessLimit;
+    }
+
+    public static boolean isJournal(Path file) {
+        return file.getFileName().toString().endsWith(".ndjson");
+    }
+
+    @Override
+    public LongStream references(String userToken, String caseType, String searchAfter) {
+        CaseIdList ids;
+        if (isJournal(file)) {
+            ids = outcomeJournal.readFailedCases(file, caseType);
+        } else {
+            try {
+                ids = CaseIdList.readFrom(file);
+            } catch (IOException | NumberFormatException e) {
+                throw new CaseMigrationException("Unable to read case IDs from " + file, e);
+            }
+        }
+
+        long[] references = ids.stream().sorted().distinct().toArray();
+        log.info("Migrating {} cases listed in {}, the case search is skipped", references.length, file);
+        migrationMetrics.expectCases(Math.min(references.length, caseProcessLimit));
+        return LongStream.of(references);
+    }
+}
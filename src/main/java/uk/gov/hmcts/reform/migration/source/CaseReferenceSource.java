@@ -0,0 +1,14 @@
+package uk.gov.hmcts.reform.migration.source;
+
+import java.util.stream.LongStream;
+
+/**
+ * A source of bare case references, whose cases are fetched by the start event.
+ */
+public non-sealed interface CaseReferenceSource extends CaseSource {
+
+    /**
+     * The references of the case type after {@code searchAfter}, or from the start when it is {@code null}.
+     */
+    LongStream references(String userToken, String caseType, String searchAfter);
+}
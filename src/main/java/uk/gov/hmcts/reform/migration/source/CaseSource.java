@@ -0,0 +1,20 @@
+package uk.gov.hmcts.reform.migration.source;
+
+/**
+ * Where the cases to migrate come from. A source either streams cases with the data {@code accepts()} is applied
+ * to before anything is sent to CCD ({@link CaseDetailsSource}), or only case references, which are checked
+ * against the case returned by the start event instead ({@link CaseReferenceSource}).
+ */
+public sealed interface CaseSource extends AutoCloseable permits CaseDetailsSource, CaseReferenceSource {
+
+    /**
+     * Whether cases come in ascending reference order, so that a resumed run can carry on after the last one.
+     */
+    default boolean isOrdered() {
+        return true;
+    }
+
+    @Override
+    default void close() {
+    }
+}
@@ -0,0 +1,23 @@
+package uk.gov.hmcts.reform.migration.source;
+
+import uk.gov.hmcts.reform.ccd.client.model.CaseDetails;
+import uk.gov.hmcts.reform.migration.repository.ElasticSearchRepository;
+
+import java.util.stream.Stream;
+
+/**
+ * Pages through the case type with the Elasticsearch search_after scan, fetching whole cases.
+ */
+public class ElasticSearchCaseSource implements CaseDetailsSource {
+
+    private final ElasticSearchRepository elasticSearchRepository;
+
+    public ElasticSearchCaseSource(ElasticSearchRepository elasticSearchRepository) {
+        this.elasticSearchRepository = elasticSearchRepository;
+    }
+
+    @Override
+    public Stream<CaseDetails> cases(String userToken, String caseType, String searchAfter) {
+        return elasticSearchRepository.streamCaseByCaseType(userToken, caseType, searchAfter);
+    }
+}
@@ -0,0 +1,23 @@
+package uk.gov.hmcts.reform.migration.source;
+
+import uk.gov.hmcts.reform.migration.repository.ElasticSearchRepository;
+
+import java.util.stream.LongStream;
+
+/**
+ * Pages through the case type with the Elasticsearch search_after scan in ID-only mode, fetching just the case
+ * references.
+ */
+public class ElasticSearchReferenceSource implements CaseReferenceSource {
+
+    private final ElasticSearchRepository elasticSearchRepository;
+
+    public ElasticSearchReferenceSource(ElasticSearchRepository elasticSearchRepository) {
+        this.elasticSearchRepository = elasticSearchRepository;
+    }
+
+    @Override
+    public LongStream references(String userToken, String caseType, String searchAfter) {
+        return elasticSearchRepository.streamCaseReferencesByCaseType(userToken, caseType, searchAfter);
+    }
+}
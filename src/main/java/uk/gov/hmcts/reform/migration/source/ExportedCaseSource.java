@@ -0,0 +1,594 @@
+package uk.gov.hmcts.reform.migration.source;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.StringUtils;
+import uk.gov.hmcts.reform.ccd.client.model.CaseDetails;
+import uk.gov.hmcts.reform.domain.exception.CaseMigrationException;
+import uk.gov.hmcts.reform.migration.repository.CaseDetailsPage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Cases listed in an export, such as a reporting extract, read one line at a time from a memory-mapped file or
+ * from standard input, so the case search is skipped and the export is never loaded whole.
+ *
+ * <p>A CSV export either has one case reference per line, or a header naming its columns: {@code reference} (or
+ * {@code id}), and optionally {@code jurisdiction}, {@code case_type}, {@code state} and {@code data.<field>}
+ * columns. An NDJSON export has one case per line in the shape CCD returns it ({@code id}, {@code jurisdiction},
+ * {@code case_type_id}, {@code state}, {@code case_data}), or just a reference per line. When the export carries
+ * a state or case data, {@code accepts()} is applied to it before the start event; otherwise only the references
+ * are read. Cases of other case types are left out, and a case without a jurisdiction gets the configured one.
+ * A case without a case type is read for every case type, so an export read for several case types must give
+ * every case its case type; the first case without one stops the read.
+ * Which of the two an export holds is found when it is opened, giving a {@link Cases} or a {@link References}
+ * source. Cases are read in the order of the export, so a resumed run skips the cases its checkpoint has finished
+ * rather than carrying on after a reference.
+ */
+@Slf4j
+public abstract sealed class ExportedCaseSource implements AutoCloseable {
+
+    public static final String STANDARD_INPUT = "-";
+
+    public enum Format {
+        CSV,
+        NDJSON
+    }
+
+    private final String name;
+
+    private final Format format;
+
+    private final Path file;
+
+    private final ObjectReader caseReader;
+
+    private final String jurisdiction;
+
+    private final Columns columns;
+
+    private final boolean requireCaseType;
+
+    private LineReader pending;
+
+    private ExportedCaseSource(String name, Format format, Path file, LineReader reader, ObjectReader caseReader,
+                               String jurisdiction, Columns columns, boolean requireCaseType) {
+        this.name = name;
+        this.format = format;
+        this.file = file;
+        this.caseReader = caseReader;
+        this.jurisdiction = StringUtils.hasText(jurisdiction) ? jurisdiction : null;
+        this.columns = columns;
+        this.requireCaseType = requireCaseType;
+        this.pending = reader;
+    }
+
+    /**
+     * Opens the export at {@code location}, or standard input when it is {@value #STANDARD_INPUT}. The format is
+     * taken from the file extension unless it is given. When it is read for several case types, an export whose
+     * first case has no case type is rejected here.
+     */
+    public static CaseSource open(String location, String format, ObjectMapper objectMapper, String jurisdiction,
+                                  boolean requireCaseType) {
+        Format exportFormat = format(format, location);
+        ObjectReader caseReader = CaseDetailsPage.caseReader(objectMapper);
+        try {
+            if (STANDARD_INPUT.equals(location)) {
+                return read(System.in, exportFormat, caseReader, jurisdiction);
+            }
+            Path file = Path.of(location);
+            return create(file.toString(), exportFormat, file, new MappedLineReader(file), caseReader, jurisdiction,
+                          requireCaseType);
+        } catch (IOException e) {
+            throw new CaseMigrationException("Unable to read cases from " + location, e);
+        }
+    }
+
+    static CaseSource read(InputStream input, Format format, ObjectReader caseReader,
+                           String jurisdiction) throws IOException {
+        return create("standard input", format, null, new StreamLineReader(input), caseReader, jurisdiction, false);
+    }
+
+    private static CaseSource create(String name, Format format, Path file, LineReader reader,
+                                     ObjectReader caseReader, String jurisdiction,
+                                     boolean requireCaseType) throws IOException {
+        Header header;
+        try {
+            header = inspect(reader, format, caseReader, name);
+            if (requireCaseType && !header.caseTypes()) {
+                throw new CaseMigrationException("The cases in " + name + " have no case type, so they can only be "
+                                                     + "migrated for one case type");
+            }
+        } catch (IOException | RuntimeException e) {
+            reader.close();
+            throw e;
+        }
+        log.info("Reading {} from {} export {}, the case search is skipped",
+                 header.referencesOnly() ? "case references" : "cases", format, name);
+        return header.referencesOnly()
+            ? new References(name, format, file, reader, caseReader, jurisdiction, header.columns(), requireCaseType)
+            : new Cases(name, format, file, reader, caseReader, jurisdiction, header.columns(), requireCaseType);
+    }
+
+    static Format format(String format, String location) {
+        String value = StringUtils.hasText(format) ? format.trim() : StringUtils.getFilenameExtension(location);
+        return switch (value == null ? "" : value.toLowerCase(Locale.ROOT)) {
+            case "csv", "txt" -> Format.CSV;
+            case "ndjson", "jsonl" -> Format.NDJSON;
+            default -> throw new CaseMigrationException("Unknown format of case source " + location
+                                                            + ", use csv or ndjson");
+        };
+    }
+
+    final Stream<CaseDetails> readCases(String caseType) {
+        LineReader reader = reader();
+        return StreamSupport.stream(new CaseSpliterator(reader, caseType), false).onClose(() -> close(reader));
+    }
+
+    final LongStream readReferences(String caseType) {
+        LineReader reader = reader();
+        return StreamSupport.longStream(new ReferenceSpliterator(reader, caseType), false)
+            .onClose(() -> close(reader));
+    }
+
+    @Override
+    public synchronized void close() {
+        if (pending != null) {
+            close(pending);
+            pending = null;
+        }
+    }
+
+    /**
+     * The reader the first stream continues from, or a new one over the file for a further case type.
+     */
+    private synchronized LineReader reader() {
+        if (pending != null) {
+            LineReader reader = pending;
+            pending = null;
+            return reader;
+        }
+        if (file == null) {
+            throw new CaseMigrationException("The cases on " + name + " can only be read once");
+        }
+        LineReader reader = null;
+        try {
+            reader = new MappedLineReader(file);
+            if (columns != null) {
+                nextNonBlank(reader);
+            }
+            return reader;
+        } catch (IOException e) {
+            if (reader != null) {
+                close(reader);
+            }
+            throw new UncheckedIOException("Unable to read cases from " + name, e);
+        }
+    }
+
+    /**
+     * Reads the header, or the first record, to find out what the export holds. A first record is pushed back.
+     */
+    private static Header inspect(LineReader reader, Format format, ObjectReader caseReader,
+                                  String name) throws IOException {
+        int length = nextNonBlank(reader);
+        if (length < 0) {
+            return new Header(null, true, true);
+        }
+        byte[] line = reader.line();
+        if (format == Format.CSV) {
+            List<String> header = csvFields(line, length);
+            if (isReference(header.get(0))) {
+                reader.pushBack();
+                return new Header(null, true, false);
+            }
+            Columns columns = Columns.of(header, name);
+            return new Header(columns, !columns.hasCaseData(), columns.caseType() >= 0);
+        }
+        reader.pushBack();
+        if (line[firstNonSpace(line, length)] != '{') {
+            return new Header(null, true, false);
+        }
+        boolean caseData = false;
+        boolean caseType = false;
+        try (JsonParser parser = caseReader.createParser(line, 0, length)) {
+            parser.nextToken();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                caseData |= "case_data".equals(field) || "state".equals(field);
+                caseType |= "case_type_id".equals(field) || "case_type".equals(field);
+                parser.nextToken();
+                parser.skipChildren();
+            }
+        }
+        return new Header(null, !caseData, caseType);
+    }
+
+    /**
+     * Whether a case of the given case type, or of none, is read for the case type.
+     */
+    private boolean belongsTo(String recordCaseType, String caseType) {
+        if (recordCaseType == null) {
+            if (requireCaseType) {
+                throw new CaseMigrationException("The case has no case type, which every case of an export "
+                                                     + "migrated for several case types needs");
+            }
+            return true;
+        }
+        return recordCaseType.equals(caseType);
+    }
+
+    private CaseDetails csvCase(List<String> fields, String caseType) {
+        if (!belongsTo(columns.value(fields, columns.caseType()), caseType)) {
+            return null;
+        }
+        Map<String, Object> data = new LinkedHashMap<>();
+        columns.data().forEach((field, index) -> {
+            String value = columns.value(fields, index);
+            if (value != null) {
+                data.put(field, value);
+            }
+        });
+        String recordJurisdiction = columns.value(fields, columns.jurisdiction());
+        return CaseDetails.builder()
+            .id(Long.parseLong(columns.value(fields, columns.reference())))
+            .jurisdiction(recordJurisdiction == null ? jurisdiction : recordJurisdiction)
+            .caseTypeId(caseType)
+            .state(columns.value(fields, columns.state()))
+            .data(data)
+            .build();
+    }
+
+    private CaseDetails jsonCase(byte[] line, int length, String caseType) throws IOException {
+        CaseDetails caseDetails = caseReader.readValue(line, 0, length);
+        if (!belongsTo(caseDetails.getCaseTypeId(), caseType)) {
+            return null;
+        }
+        if (caseDetails.getJurisdiction() == null && jurisdiction != null) {
+            return caseDetails.toBuilder().jurisdiction(jurisdiction).build();
+        }
+        return caseDetails;
+    }
+
+    /**
+     * The reference of a CSV or NDJSON line, or -1 when the case belongs to another case type. Lines holding just
+     * a reference are read without being decoded.
+     */
+    private long reference(byte[] line, int length, String caseType) throws IOException {
+        if (format == Format.CSV) {
+            if (columns == null) {
+                int end = 0;
+                while (end < length && line[end] != ',') {
+                    end++;
+                }
+                return belongsTo(null, caseType) ? parseReference(line, 0, end) : -1;
+            }
+            List<String> fields = csvFields(line, length);
+            return belongsTo(columns.value(fields, columns.caseType()), caseType)
+                ? Long.parseLong(columns.value(fields, columns.reference()))
+                : -1;
+        }
+        if (line[firstNonSpace(line, length)] != '{') {
+            return belongsTo(null, caseType) ? parseReference(line, 0, length) : -1;
+        }
+
+        long reference = -1;
+        String recordCaseType = null;
+        try (JsonParser parser = caseReader.createParser(line, 0, length)) {
+            parser.nextToken();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if (("id".equals(field) || "reference".equals(field)) && value.isScalarValue()) {
+                    reference = Long.parseLong(parser.getValueAsString().trim());
+                } else if ("case_type_id".equals(field) || "case_type".equals(field)) {
+                    recordCaseType = parser.getValueAsString();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        if (reference < 0) {
+            throw new NumberFormatException("No case reference");
+        }
+        return belongsTo(recordCaseType, caseType) ? reference : -1;
+    }
+
+    private static long parseReference(byte[] line, int from, int to) {
+        long reference = 0;
+        int digits = 0;
+        for (int i = from; i < to; i++) {
+            byte value = line[i];
+            if (value >= '0' && value <= '9' && digits < 18) {
+                reference = reference * 10 + value - '0';
+                digits++;
+            } else if (value != ' ' && value != '\t' && value != '"') {
+                throw new NumberFormatException("Not a case reference: "
+                                                    + new String(line, from, to - from, StandardCharsets.UTF_8));
+            }
+        }
+        if (digits == 0) {
+            throw new NumberFormatException("No case reference");
+        }
+        return reference;
+    }
+
+    private static boolean isReference(String value) {
+        String reference = value.strip();
+        return !reference.isEmpty() && reference.chars().allMatch(Character::isDigit);
+    }
+
+    /**
+     * Splits a CSV line, with fields optionally quoted and quotes inside them doubled.
+     */
+    static List<String> csvFields(byte[] line, int length) {
+        String text = new String(line, 0, length, StandardCharsets.UTF_8);
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < text.length(); i++) {
+            char value = text.charAt(i);
+            if (quoted) {
+                if (value != '"') {
+                    field.append(value);
+                } else if (i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (value == '"') {
+                quoted = true;
+            } else if (value == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(value);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static int nextNonBlank(LineReader reader) throws IOException {
+        int length;
+        do {
+            length = reader.next();
+        } while (length >= 0 && firstNonSpace(reader.line(), length) == length);
+        return length;
+    }
+
+    private static int firstNonSpace(byte[] line, int length) {
+        int index = 0;
+        while (index < length && (line[index] == ' ' || line[index] == '\t')) {
+            index++;
+        }
+        return index;
+    }
+
+    private void close(LineReader reader) {
+        try {
+            reader.close();
+        } catch (IOException e) {
+            log.warn("Unable to close {}", name, e);
+        }
+    }
+
+    /**
+     * An export holding case data, read as whole cases.
+     */
+    static final class Cases extends ExportedCaseSource implements CaseDetailsSource {
+
+        private Cases(String name, Format format, Path file, LineReader reader, ObjectReader caseReader,
+                      String jurisdiction, Columns columns, boolean requireCaseType) {
+            super(name, format, file, reader, caseReader, jurisdiction, columns, requireCaseType);
+        }
+
+        @Override
+        public Stream<CaseDetails> cases(String userToken, String caseType, String searchAfter) {
+            return readCases(caseType);
+        }
+
+        @Override
+        public boolean isOrdered() {
+            return false;
+        }
+    }
+
+    /**
+     * An export of case references without case data.
+     */
+    static final class References extends ExportedCaseSource implements CaseReferenceSource {
+
+        private References(String name, Format format, Path file, LineReader reader, ObjectReader caseReader,
+                           String jurisdiction, Columns columns, boolean requireCaseType) {
+            super(name, format, file, reader, caseReader, jurisdiction, columns, requireCaseType);
+        }
+
+        @Override
+        public LongStream references(String userToken, String caseType, String searchAfter) {
+            return readReferences(caseType);
+        }
+
+        @Override
+        public boolean isOrdered() {
+            return false;
+        }
+    }
+
+    /**
+     * What the start of an export shows: the CSV header columns, if it has a header, whether it holds case
+     * references only and whether its cases come with their case type.
+     */
+    private record Header(Columns columns, boolean referencesOnly, boolean caseTypes) {
+    }
+
+    /**
+     * Columns of a CSV export with a header; -1 marks a column the export does not have.
+     */
+    record Columns(int reference, int jurisdiction, int caseType, int state, Map<String, Integer> data) {
+
+        private static final String DATA_PREFIX = "data.";
+
+        static Columns of(List<String> header, String name) {
+            int reference = -1;
+            int jurisdiction = -1;
+            int caseType = -1;
+            int state = -1;
+            Map<String, Integer> data = new LinkedHashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                String column = header.get(i).strip();
+                switch (column.toLowerCase(Locale.ROOT)) {
+                    case "reference", "id", "case_reference" -> reference = i;
+                    case "jurisdiction" -> jurisdiction = i;
+                    case "case_type", "case_type_id" -> caseType = i;
+                    case "state" -> state = i;
+                    default -> {
+                        if (column.startsWith(DATA_PREFIX) && column.length() > DATA_PREFIX.length()) {
+                            data.put(column.substring(DATA_PREFIX.length()), i);
+                        }
+                    }
+                }
+            }
+            if (reference < 0) {
+                throw new CaseMigrationException("The header of " + name + " has no reference column");
+            }
+            return new Columns(reference, jurisdiction, caseType, state, data);
+        }
+
+        boolean hasCaseData() {
+            return state >= 0 || !data.isEmpty();
+        }
+
+        /**
+         * The stripped value of a column, or {@code null} when it is missing or blank.
+         */
+        String value(List<String> fields, int column) {
+            if (column < 0 || column >= fields.size()) {
+                return null;
+            }
+            String value = fields.get(column).strip();
+            return value.isEmpty() ? null : value;
+        }
+    }
+
+    @FunctionalInterface
+    private interface LineParser {
+
+        /**
+         * Parses a non-blank line, returning {@code false} when its case is left out.
+         */
+        boolean parse(byte[] line, int length) throws IOException;
+    }
+
+    /**
+     * Walks the lines of a reader, skipping blank ones, and reports which line of the export could not be read.
+     */
+    private final class Lines {
+
+        private final LineReader reader;
+
+        private final String caseType;
+
+        private long number;
+
+        Lines(LineReader reader, String caseType) {
+            this.reader = reader;
+            this.caseType = caseType;
+            this.number = columns == null ? 0 : 1;
+        }
+
+        boolean next(LineParser parser) {
+            try {
+                int length;
+                while ((length = reader.next()) >= 0) {
+                    number++;
+                    if (firstNonSpace(reader.line(), length) < length && parser.parse(reader.line(), length)) {
+                        return true;
+                    }
+                }
+                return false;
+            } catch (IOException | RuntimeException e) {
+                throw new CaseMigrationException("Unable to read line " + number + " of " + name
+                                                     + " for case type " + caseType, e);
+            }
+        }
+    }
+
+    private final class CaseSpliterator extends Spliterators.AbstractSpliterator<CaseDetails> {
+
+        private final Lines lines;
+
+        private final LineParser parser = this::parse;
+
+        private CaseDetails current;
+
+        CaseSpliterator(LineReader reader, String caseType) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.lines = new Lines(reader, caseType);
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super CaseDetails> action) {
+            if (!lines.next(parser)) {
+                return false;
+            }
+            action.accept(current);
+            return true;
+        }
+
+        private boolean parse(byte[] line, int length) throws IOException {
+            current = format == Format.CSV
+                ? csvCase(csvFields(line, length), lines.caseType)
+                : jsonCase(line, length, lines.caseType);
+            return current != null;
+        }
+    }
+
+    private final class ReferenceSpliterator extends Spliterators.AbstractLongSpliterator {
+
+        private final Lines lines;
+
+        private final LineParser parser = this::parse;
+
+        private long current;
+
+        ReferenceSpliterator(LineReader reader, String caseType) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.lines = new Lines(reader, caseType);
+        }
+
+        @Override
+        public boolean tryAdvance(LongConsumer action) {
+            if (!lines.next(parser)) {
+                return false;
+            }
+            action.accept(current);
+            return true;
+        }
+
+        private boolean parse(byte[] line, int length) throws IOException {
+            current = reference(line, length, lines.caseType);
+            return current >= 0;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package uk.gov.hmcts.reform.migration.source;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Reads text one line at a time into a reused byte buffer, so a line is only decoded when it is needed.
+ * Line terminators ({@code \n} or {@code \r\n}) and a UTF-8 byte order mark are not part of the line.
+ */
+abstract class LineReader implements Closeable {
+
+    private byte[] line = new byte[1024];
+
+    private int length = -1;
+
+    private boolean pushedBack;
+
+    private boolean firstLine = true;
+
+    /**
+     * Reads the next line and returns its length, or -1 once the input is used up.
+     */
+    int next() throws IOException {
+        if (pushedBack) {
+            pushedBack = false;
+        } else {
+            length = readLine();
+            if (firstLine && length >= 3 && line[0] == (byte) 0xEF && line[1] == (byte) 0xBB
+                && line[2] == (byte) 0xBF) {
+                length -= 3;
+                System.arraycopy(line, 3, line, 0, length);
+            }
+            firstLine = false;
+        }
+        return length;
+    }
+
+    /**
+     * Makes the next call to {@link #next} return the current line again.
+     */
+    void pushBack() {
+        pushedBack = length >= 0;
+    }
+
+    byte[] line() {
+        return line;
+    }
+
+    /**
+     * Reads the next line with {@link #append}, returning {@link #endLine} of its length, or -1 at the end.
+     */
+    protected abstract int readLine() throws IOException;
+
+    protected int append(int position, byte value) {
+        if (position == line.length) {
+            line = Arrays.copyOf(line, position * 2);
+        }
+        line[position] = value;
+        return position + 1;
+    }
+
+    protected int endLine(int position) {
+        return position > 0 && line[position - 1] == '\r' ? position - 1 : position;
+    }
+}
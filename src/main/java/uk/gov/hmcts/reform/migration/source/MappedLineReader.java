@@ -0,0 +1,71 @@
+package uk.gov.hmcts.reform.migration.source;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads a file through read-only memory-mapped windows. The pages come from the OS page cache and are read ahead
+ * by the kernel as the windows are scanned, so the heap never holds more than the current line, however large the
+ * file is. A line that crosses the end of a window is continued in the next one.
+ */
+class MappedLineReader extends LineReader {
+
+    static final long WINDOW_SIZE = 64L * 1024 * 1024;
+
+    private final FileChannel channel;
+
+    private final long size;
+
+    private final long windowSize;
+
+    private MappedByteBuffer window;
+
+    private long windowStart;
+
+    private long position;
+
+    MappedLineReader(Path file) throws IOException {
+        this(file, WINDOW_SIZE);
+    }
+
+    MappedLineReader(Path file, long windowSize) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.size = channel.size();
+        this.windowSize = windowSize;
+    }
+
+    @Override
+    protected int readLine() throws IOException {
+        if (position >= size) {
+            return -1;
+        }
+        int length = 0;
+        while (position < size) {
+            if (window == null || position >= windowStart + window.limit()) {
+                windowStart = position;
+                window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(windowSize, size - position));
+            }
+            int index = (int) (position - windowStart);
+            int limit = window.limit();
+            while (index < limit) {
+                byte value = window.get(index++);
+                if (value == '\n') {
+                    position = windowStart + index;
+                    return endLine(length);
+                }
+                length = append(length, value);
+            }
+            position = windowStart + limit;
+        }
+        return endLine(length);
+    }
+
+    @Override
+    public void close() throws IOException {
+        window = null;
+        channel.close();
+    }
+}
@@ -0,0 +1,50 @@
+package uk.gov.hmcts.reform.migration.source;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads lines from a stream such as standard input, which cannot be mapped or read twice.
+ */
+class StreamLineReader extends LineReader {
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private final InputStream input;
+
+    private final byte[] chunk = new byte[CHUNK_SIZE];
+
+    private int chunkPosition;
+
+    private int chunkLength;
+
+    StreamLineReader(InputStream input) {
+        this.input = input;
+    }
+
+    @Override
+    protected int readLine() throws IOException {
+        int length = 0;
+        boolean read = false;
+        while (true) {
+            if (chunkPosition == chunkLength) {
+                chunkLength = Math.max(input.read(chunk), 0);
+                chunkPosition = 0;
+                if (chunkLength == 0) {
+                    return read ? endLine(length) : -1;
+                }
+            }
+            read = true;
+            byte value = chunk[chunkPosition++];
+            if (value == '\n') {
+                return endLine(length);
+            }
+            length = append(length, value);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        input.close();
+    }
+}
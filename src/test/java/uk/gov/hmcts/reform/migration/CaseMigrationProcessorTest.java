@@ -1,26 +1,57 @@
 package uk.gov.hmcts.reform.migration;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.util.ReflectionTestUtils;
+import uk.gov.hmcts.reform.ccd.client.model.CaseDataContent;
 import uk.gov.hmcts.reform.ccd.client.model.CaseDetails;
+import uk.gov.hmcts.reform.ccd.client.model.StartEventResponse;
 import uk.gov.hmcts.reform.domain.exception.CaseMigrationException;
+import uk.gov.hmcts.reform.migration.auth.IdamUserCache;
 import uk.gov.hmcts.reform.migration.ccd.CoreCaseDataService;
+import uk.gov.hmcts.reform.migration.ccd.MigrationEvent;
+import uk.gov.hmcts.reform.migration.checkpoint.CheckpointStore;
+import uk.gov.hmcts.reform.migration.checkpoint.CheckpointTracker;
+import uk.gov.hmcts.reform.migration.dryrun.DryRunReport;
+import uk.gov.hmcts.reform.migration.metrics.MigrationMetrics;
 import uk.gov.hmcts.reform.migration.repository.ElasticSearchRepository;
-import uk.gov.hmcts.reform.migration.repository.IdamRepository;
+import uk.gov.hmcts.reform.migration.result.CaseIdList;
+import uk.gov.hmcts.reform.migration.result.CaseOutcome;
+import uk.gov.hmcts.reform.migration.result.OutcomeJournal;
+import uk.gov.hmcts.reform.migration.result.OutcomeJournalWriter;
 import uk.gov.hmcts.reform.migration.service.DataMigrationService;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
-import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -48,24 +79,37 @@ public class CaseMigrationProcessorTest {
     private ElasticSearchRepository elasticSearchRepository;
 
     @Mock
-    private IdamRepository idamRepository;
+    private IdamUserCache idamUserCache;
+
+    @Mock
+    private CheckpointStore checkpointStore;
+
+    @Mock
+    private OutcomeJournal outcomeJournal;
+
+    @TempDir
+    Path resultsDir;
+
+    @Spy
+    private MigrationMetrics migrationMetrics = new MigrationMetrics(new SimpleMeterRegistry(), "");
 
     @BeforeEach
     public void setUp() {
         ReflectionTestUtils.setField(caseMigrationProcessor, "caseProcessLimit", 1);
+        lenient().when(checkpointStore.open(anyString(), anyBoolean())).thenReturn(CheckpointTracker.disabled());
+        lenient().when(outcomeJournal.open()).thenReturn(OutcomeJournalWriter.disabled());
     }
 
     @Test
     public void shouldMigrateCasesOfACaseType() {
         when(dataMigrationService.accepts()).thenReturn(candidate -> true);
-        when(idamRepository.generateUserToken()).thenReturn(USER_TOKEN);
+        when(idamUserCache.getUserToken()).thenReturn(USER_TOKEN);
         CaseDetails details = mock(CaseDetails.class);
         when(details.getId()).thenReturn(1677777777L);
         List<CaseDetails> caseDetails = new ArrayList<>();
         caseDetails.add(details);
-        when(elasticSearchRepository.findCaseByCaseType(USER_TOKEN, CASE_TYPE)).thenReturn(caseDetails);
-        List<CaseDetails> listOfCaseDetails = elasticSearchRepository.findCaseByCaseType(USER_TOKEN, CASE_TYPE);
-        assertNotNull(listOfCaseDetails);
+        when(elasticSearchRepository.streamCaseByCaseType(USER_TOKEN, CASE_TYPE, null))
+            .thenReturn(caseDetails.stream());
         when(coreCaseDataService.update(USER_TOKEN, EVENT_ID, EVENT_SUMMARY,
                                         EVENT_DESCRIPTION, CASE_TYPE, details.getId(), details.getJurisdiction()))
             .thenReturn(details);
@@ -83,16 +127,15 @@ public class CaseMigrationProcessorTest {
     @Test
     public void shouldMigrateOnlyLimitedNumberOfCases() {
         when(dataMigrationService.accepts()).thenReturn(candidate -> true);
-        when(idamRepository.generateUserToken()).thenReturn(USER_TOKEN);
+        when(idamUserCache.getUserToken()).thenReturn(USER_TOKEN);
         CaseDetails details = mock(CaseDetails.class);
         when(details.getId()).thenReturn(1677777777L);
         CaseDetails details1 = mock(CaseDetails.class);
         List<CaseDetails> caseDetails = new ArrayList<>();
         caseDetails.add(details);
         caseDetails.add(details1);
-        when(elasticSearchRepository.findCaseByCaseType(USER_TOKEN, CASE_TYPE)).thenReturn(caseDetails);
-        List<CaseDetails> listOfCaseDetails = elasticSearchRepository.findCaseByCaseType(USER_TOKEN, CASE_TYPE);
-        assertNotNull(listOfCaseDetails);
+        when(elasticSearchRepository.streamCaseByCaseType(USER_TOKEN, CASE_TYPE, null))
+            .thenReturn(caseDetails.stream());
         when(coreCaseDataService.update(USER_TOKEN, EVENT_ID, EVENT_SUMMARY,
                                         EVENT_DESCRIPTION, CASE_TYPE, details.getId(), details.getJurisdiction()))
             .thenReturn(details);
@@ -113,8 +156,358 @@ public class CaseMigrationProcessorTest {
     }
 
     @Test
-    public void shouldThrowExceptionWhenMultipleCaseTypesPassed() {
-        assertThrows(CaseMigrationException.class, () ->
-            caseMigrationProcessor.migrateCases("Cast_Type1,Cast_Type2"));
+    public void shouldThrowExceptionWhenCaseTypesBlank() {
+        assertThrows(CaseMigrationException.class, () -> caseMigrationProcessor.migrateCases(" , "));
+    }
+
+    @Test
+    public void shouldMigrateSeveralCaseTypesWithTheirOwnResults() throws IOException {
+        ReflectionTestUtils.setField(caseMigrationProcessor, "caseProcessLimit", 10);
+        ReflectionTestUtils.setField(caseMigrationProcessor, "concurrency", 4);
+        ReflectionTestUtils.setField(caseMigrationProcessor, "resultsDir", resultsDir.toString());
+        when(dataMigrationService.accepts()).thenReturn(candidate -> true);
+        when(idamUserCache.getUserToken()).thenReturn(USER_TOKEN);
+        when(elasticSearchRepository.streamCaseByCaseType(USER_TOKEN, "Type_A", null))
+            .thenReturn(Stream.of(CaseDetails.builder().id(1L).build(), CaseDetails.builder().id(2L).build()));
+        when(elasticSearchRepository.streamCaseByCaseType(USER_TOKEN, "Type_B", null))
+            .thenReturn(Stream.of(CaseDetails.builder().id(3L).build()));
+
+        caseMigrationProcessor.migrateCases("Type_A, Type_B");
+
+        verify(coreCaseDataService).update(USER_TOKEN, EVENT_ID, EVENT_SUMMARY, EVENT_DESCRIPTION, "Type_B", 3L, null);
+        assertArrayEquals(new long[] {1L, 2L, 3L},
+                          caseMigrationProcessor.getMigratedCases().stream().sorted().toArray());
+        assertEquals(List.of("1", "2"),
+                     Files.readAllLines(resultsDir.resolve("Type_A-migrated.txt")).stream().sorted().toList());
+        assertEquals(List.of("3"), Files.readAllLines(resultsDir.resolve("Type_B-migrated.txt")));
+    }
+
+    @Test
+    public void shouldMigrateRemainingCaseTypesWhenOneSearchFails() {
+        ReflectionTestUtils.setField(caseMigrationProcessor, "caseProcessLimit", 10);
+        when(dataMigrationService.accepts()).thenReturn(candidate -> true);
+        when(idamUserCache.getUserToken()).thenReturn(USER_TOKEN);
+        when(elasticSearchRepository.streamCaseByCaseType(USER_TOKEN, "Type_A", null))
+            .thenThrow(new IllegalStateException("Search unavailable"));
+        when(elasticSearchRepository.streamCaseByCaseType(USER_TOKEN, "Type_B", null))
+            .thenReturn(Stream.of(CaseDetails.builder().id(3L).build()));
+
+        CaseMigrationException exception = assertThrows(CaseMigrationException.class, () ->
+            caseMigrationProcessor.migrateCases("Type_A,Type_B"));
+
+        assertTrue(exception.getMessage().contains("Type_A"));
+        assertArrayEquals(new long[] {3L}, caseMigrationProcessor.getMigratedCases().toArray());
+    }
+
+    @Test
+    public void shouldMigrateCasesConcurrently() {
+        ReflectionTestUtils.setField(caseMigrationProcessor, "caseProcessLimit", 10);
+        ReflectionTestUtils.setField(caseMigrationProcessor, "concurrency", 4);
+        ReflectionTestUtils.setField(caseMigrationProcessor, "queueCapacity", 2);
+        when(dataMigrationService.accepts()).thenReturn(candidate -> true);
+        when(idamUserCache.getUserToken()).thenReturn(USER_TOKEN);
+        List<CaseDetails> caseDetails = new ArrayList<>();
+        for (long id = 1; id <= 10; id++) {
+            caseDetails.add(CaseDetails.builder().id(id).build());
+        }
+        when(elasticSearchRepository.streamCaseByCaseType(USER_TOKEN, CASE_TYPE, null))
+            .thenReturn(caseDetails.stream());
+
+        caseMigrationProcessor.migrateCases(CASE_TYPE);
+
+        verify(coreCaseDataService, times(10))
+            .update(eq(USER_TOKEN), eq(EVENT_ID), eq(EVENT_SUMMARY), eq(EVENT_DESCRIPTION), eq(CASE_TYPE),
+                    anyLong(), isNull());
+        assertEquals(10, caseMigrationProcessor.getMigratedCases().size());
+        assertTrue(caseMigrationProcessor.getFailedCases().isEmpty());
+    }
+
+    @Test
+    public void shouldResumeFromCheckpointAndSkipCompletedCases() {
+        ReflectionTestUtils.setField(caseMigrationProcessor, "caseProcessLimit", 10);
+        CheckpointTracker checkpoint = mock(CheckpointTracker.class);
+        when(checkpoint.getSearchAfter()).thenReturn("1");
+        when(checkpoint.isCompleted(2L)).thenReturn(true);
+        when(checkpointStore.open(CASE_TYPE, true)).thenReturn(checkpoint);
+        when(dataMigrationService.accepts()).thenReturn(candidate -> true);
+        when(idamUserCache.getUserToken()).thenReturn(USER_TOKEN);
+        CaseDetails completed = CaseDetails.builder().id(2L).build();
+        CaseDetails pending = CaseDetails.builder().id(3L).build();
+        when(elasticSearchRepository.streamCaseByCaseType(USER_TOKEN, CASE_TYPE, "1"))
+            .thenReturn(Stream.of(completed, pending));
+
+        caseMigrationProcessor.migrateCases(CASE_TYPE);
+
+        verify(coreCaseDataService, times(1))
+            .update(USER_TOKEN, EVENT_ID, EVENT_SUMMARY, EVENT_DESCRIPTION, CASE_TYPE, 3L, null);
+        verify(checkpoint, never()).caseStarted(2L);
+        verify(checkpoint).caseStarted(3L);
+        verify(checkpoint).caseMigrated(3L);
+        verify(checkpoint).close();
+    }
+
+    @Test
+    public void shouldMigrateCasesThroughPipeline() {
+        ReflectionTestUtils.setField(caseMigrationProcessor, "caseProcessLimit", 10);
+        ReflectionTestUtils.setField(caseMigrationProcessor, "pipelineEnabled", true);
+        ReflectionTestUtils.setField(caseMigrationProcessor, "pipelineStartConcurrency", 2);
+        ReflectionTestUtils.setField(caseMigrationProcessor, "pipelineTransformConcurrency", 2);
+        ReflectionTestUtils.setField(caseMigrationProcessor, "pipelineSubmitConcurrency", 2);
+        when(dataMigrationService.accepts()).thenReturn(candidate -> true);
+        when(idamUserCache.getUserToken()).thenReturn(USER_TOKEN);
+        CaseDetails migrated = CaseDetails.builder().id(1L).build();
+        CaseDetails failed = CaseDetails.builder().id(2L).build();
+        when(elasticSearchRepository.streamCaseByCaseType(USER_TOKEN, CASE_TYPE, null))
+            .thenReturn(Stream.of(migrated, failed));
+        StartEventResponse startEventResponse = StartEventResponse.builder().caseDetails(migrated).build();
+        MigrationEvent migrationEvent = new MigrationEvent(migrated, null);
+        when(coreCaseDataService.startEvent(USER_TOKEN, EVENT_ID, CASE_TYPE, 1L, null)).thenReturn(startEventResponse);
+        when(coreCaseDataService.startEvent(USER_TOKEN, EVENT_ID, CASE_TYPE, 2L, null))
+            .thenThrow(new IllegalStateException("CCD unavailable"));
+        when(coreCaseDataService.migrate(startEventResponse, EVENT_SUMMARY, EVENT_DESCRIPTION))
+            .thenReturn(migrationEvent);
+
+        caseMigrationProcessor.migrateCases(CASE_TYPE);
+
+        verify(coreCaseDataService).submitEvent(USER_TOKEN, CASE_TYPE, migrationEvent);
+        assertArrayEquals(new long[] {1L}, caseMigrationProcessor.getMigratedCases().toArray());
+        assertArrayEquals(new long[] {2L}, caseMigrationProcessor.getFailedCases().toArray());
+    }
+
+    @Test
+    public void shouldMigrateAcceptedCasesFromReferencesOnly() {
+        ReflectionTestUtils.setField(caseMigrationProcessor, "caseProcessLimit", 10);
+        ReflectionTestUtils.setField(caseMigrationProcessor, "idOnly", true);
+        ReflectionTestUtils.setField(caseMigrationProcessor, "jurisdiction", "JURISDICTION");
+        when(dataMigrationService.accepts()).thenReturn(candidate -> candidate.getId() == 1L);
+        when(idamUserCache.getUserToken()).thenReturn(USER_TOKEN);
+        when(elasticSearchRepository.streamCaseReferencesByCaseType(USER_TOKEN, CASE_TYPE, null))
+            .thenReturn(LongStream.of(1L, 2L));
+        StartEventResponse accepted = StartEventResponse.builder()
+            .caseDetails(CaseDetails.builder().id(1L).build())
+            .build();
+        StartEventResponse rejected = StartEventResponse.builder()
+            .caseDetails(CaseDetails.builder().id(2L).build())
+            .build();
+        MigrationEvent migrationEvent = new MigrationEvent(accepted.getCaseDetails(), null);
+        when(coreCaseDataService.startEvent(USER_TOKEN, EVENT_ID, CASE_TYPE, 1L, "JURISDICTION")).thenReturn(accepted);
+        when(coreCaseDataService.startEvent(USER_TOKEN, EVENT_ID, CASE_TYPE, 2L, "JURISDICTION")).thenReturn(rejected);
+        when(coreCaseDataService.migrate(accepted, EVENT_SUMMARY, EVENT_DESCRIPTION)).thenReturn(migrationEvent);
+
+        caseMigrationProcessor.migrateCases(CASE_TYPE);
+
+        verify(coreCaseDataService, times(1)).submitEvent(USER_TOKEN, CASE_TYPE, migrationEvent);
+        verify(elasticSearchRepository, never()).streamCaseByCaseType(USER_TOKEN, CASE_TYPE, null);
+        assertArrayEquals(new long[] {1L}, caseMigrationProcessor.getMigratedCases().toArray());
+        assertTrue(caseMigrationProcessor.getFailedCases().isEmpty());
+    }
+
+    @Test
+    public void shouldRequireJurisdictionForReferencesOnly() {
+        ReflectionTestUtils.setField(caseMigrationProcessor, "idOnly", true);
+        assertThrows(CaseMigrationException.class, () -> caseMigrationProcessor.migrateCases(CASE_TYPE));
+    }
+
+    @Test
+    public void shouldWriteMigratedAndFailedCaseReferencesToResultsDir() throws IOException {
+        ReflectionTestUtils.setField(caseMigrationProcessor, "caseProcessLimit", 10);
+        ReflectionTestUtils.setField(caseMigrationProcessor, "resultsDir", resultsDir.toString());
+        when(dataMigrationService.accepts()).thenReturn(candidate -> true);
+        when(idamUserCache.getUserToken()).thenReturn(USER_TOKEN);
+        when(elasticSearchRepository.streamCaseByCaseType(USER_TOKEN, CASE_TYPE, null))
+            .thenReturn(Stream.of(CaseDetails.builder().id(1L).build(), CaseDetails.builder().id(2L).build()));
+        when(coreCaseDataService.update(USER_TOKEN, EVENT_ID, EVENT_SUMMARY, EVENT_DESCRIPTION, CASE_TYPE, 2L, null))
+            .thenThrow(new IllegalStateException("CCD unavailable"));
+
+        caseMigrationProcessor.migrateCases(CASE_TYPE);
+
+        assertEquals(List.of("1"), Files.readAllLines(resultsDir.resolve(CASE_TYPE + "-migrated.txt")));
+        assertEquals(List.of("2"), Files.readAllLines(resultsDir.resolve(CASE_TYPE + "-failed.txt")));
+    }
+
+    @Test
+    public void shouldJournalOutcomeOfEveryCase() {
+        ReflectionTestUtils.setField(caseMigrationProcessor, "caseProcessLimit", 10);
+        OutcomeJournalWriter journal = mock(OutcomeJournalWriter.class);
+        when(outcomeJournal.open()).thenReturn(journal);
+        when(dataMigrationService.accepts()).thenReturn(candidate -> candidate.getId() != 3L);
+        when(idamUserCache.getUserToken()).thenReturn(USER_TOKEN);
+        when(elasticSearchRepository.streamCaseByCaseType(USER_TOKEN, CASE_TYPE, null))
+            .thenReturn(Stream.of(CaseDetails.builder().id(1L).jurisdiction("J").build(),
+                                  CaseDetails.builder().id(2L).jurisdiction("J").build(),
+                                  CaseDetails.builder().id(3L).jurisdiction("J").build()));
+        when(coreCaseDataService.update(USER_TOKEN, EVENT_ID, EVENT_SUMMARY, EVENT_DESCRIPTION, CASE_TYPE, 2L, "J"))
+            .thenThrow(new IllegalStateException("CCD unavailable"));
+
+        caseMigrationProcessor.migrateCases(CASE_TYPE);
+
+        ArgumentCaptor<CaseOutcome> outcomes = ArgumentCaptor.forClass(CaseOutcome.class);
+        verify(journal, times(3)).record(outcomes.capture());
+        verify(journal).close();
+        assertEquals(List.of(CaseOutcome.Outcome.MIGRATED, CaseOutcome.Outcome.FAILED, CaseOutcome.Outcome.SKIPPED),
+                     outcomes.getAllValues().stream().map(CaseOutcome::outcome).toList());
+        CaseOutcome failed = outcomes.getAllValues().get(1);
+        assertEquals(2L, failed.id());
+        assertEquals(CASE_TYPE, failed.caseType());
+        assertEquals("J", failed.jurisdiction());
+        assertEquals("IllegalStateException: CCD unavailable", failed.reason());
+    }
+
+    @Test
+    public void shouldRecordCaseLeftUnchangedWithoutCountingItMigrated() throws IOException {
+        ReflectionTestUtils.setField(caseMigrationProcessor, "resultsDir", resultsDir.toString());
+        OutcomeJournalWriter journal = mock(OutcomeJournalWriter.class);
+        when(outcomeJournal.open()).thenReturn(journal);
+        when(dataMigrationService.accepts()).thenReturn(candidate -> true);
+        when(idamUserCache.getUserToken()).thenReturn(USER_TOKEN);
+        when(elasticSearchRepository.streamCaseByCaseType(USER_TOKEN, CASE_TYPE, null))
+            .thenReturn(Stream.of(CaseDetails.builder().id(1L).jurisdiction("J").build()));
+        when(coreCaseDataService.update(USER_TOKEN, EVENT_ID, EVENT_SUMMARY, EVENT_DESCRIPTION, CASE_TYPE, 1L, "J"))
+            .thenReturn(CoreCaseDataService.UNCHANGED);
+
+        caseMigrationProcessor.migrateCases(CASE_TYPE);
+
+        ArgumentCaptor<CaseOutcome> outcome = ArgumentCaptor.forClass(CaseOutcome.class);
+        verify(journal).record(outcome.capture());
+        assertEquals(CaseOutcome.Outcome.UNCHANGED, outcome.getValue().outcome());
+        assertEquals(List.of(), Files.readAllLines(resultsDir.resolve(CASE_TYPE + "-migrated.txt")));
+    }
+
+    @Test
+    public void shouldUpdateCaseReturnedTwiceBySearchOnlyOnce() {
+        ReflectionTestUtils.setField(caseMigrationProcessor, "caseProcessLimit", 10);
+        ReflectionTestUtils.setField(caseMigrationProcessor, "deduplicate", true);
+        when(dataMigrationService.accepts()).thenReturn(candidate -> true);
+        when(idamUserCache.getUserToken()).thenReturn(USER_TOKEN);
+        when(elasticSearchRepository.streamCaseByCaseType(USER_TOKEN, CASE_TYPE, null))
+            .thenReturn(Stream.of(CaseDetails.builder().id(1L).build(), CaseDetails.builder().id(2L).build(),
+                                  CaseDetails.builder().id(2L).build(), CaseDetails.builder().id(3L).build()));
+
+        caseMigrationProcessor.migrateCases(CASE_TYPE);
+
+        verify(coreCaseDataService, times(1))
+            .update(USER_TOKEN, EVENT_ID, EVENT_SUMMARY, EVENT_DESCRIPTION, CASE_TYPE, 2L, null);
+        assertArrayEquals(new long[] {1L, 2L, 3L}, caseMigrationProcessor.getMigratedCases().toArray());
+        verify(migrationMetrics).caseDuplicate();
+    }
+
+    @Test
+    public void shouldMigrateOnlyCasesListedInCaseIdsFile() throws IOException {
+        ReflectionTestUtils.setField(caseMigrationProcessor, "caseProcessLimit", 10);
+        ReflectionTestUtils.setField(caseMigrationProcessor, "jurisdiction", "JURISDICTION");
+        Path caseIds = Files.writeString(resultsDir.resolve("failed.txt"), "2\n1\n\n2\n");
+        ReflectionTestUtils.setField(caseMigrationProcessor, "caseIdsFile", caseIds.toString());
+        when(dataMigrationService.accepts()).thenReturn(candidate -> true);
+        when(idamUserCache.getUserToken()).thenReturn(USER_TOKEN);
+        for (long id = 1; id <= 2; id++) {
+            StartEventResponse started = StartEventResponse.builder()
+                .caseDetails(CaseDetails.builder().id(id).build())
+                .build();
+            when(coreCaseDataService.startEvent(USER_TOKEN, EVENT_ID, CASE_TYPE, id, "JURISDICTION"))
+                .thenReturn(started);
+        }
+
+        caseMigrationProcessor.migrateCases(CASE_TYPE);
+
+        verify(elasticSearchRepository, never()).streamCaseByCaseType(USER_TOKEN, CASE_TYPE, null);
+        verify(elasticSearchRepository, never()).streamCaseReferencesByCaseType(USER_TOKEN, CASE_TYPE, null);
+        assertArrayEquals(new long[] {1L, 2L}, caseMigrationProcessor.getMigratedCases().toArray());
+    }
+
+    @Test
+    public void shouldRetryFailedCasesFromOutcomeJournal() {
+        ReflectionTestUtils.setField(caseMigrationProcessor, "caseProcessLimit", 10);
+        ReflectionTestUtils.setField(caseMigrationProcessor, "jurisdiction", "JURISDICTION");
+        Path journal = resultsDir.resolve("outcomes.ndjson");
+        ReflectionTestUtils.setField(caseMigrationProcessor, "caseIdsFile", journal.toString());
+        CaseIdList failed = new CaseIdList();
+        failed.add(3L);
+        when(outcomeJournal.readFailedCases(journal, CASE_TYPE)).thenReturn(failed);
+        when(dataMigrationService.accepts()).thenReturn(candidate -> true);
+        when(idamUserCache.getUserToken()).thenReturn(USER_TOKEN);
+        when(coreCaseDataService.startEvent(USER_TOKEN, EVENT_ID, CASE_TYPE, 3L, "JURISDICTION"))
+            .thenThrow(new IllegalStateException("CCD unavailable"));
+
+        caseMigrationProcessor.migrateCases(CASE_TYPE);
+
+        assertArrayEquals(new long[] {3L}, caseMigrationProcessor.getFailedCases().toArray());
+    }
+
+    @Test
+    public void shouldRetryCasesFailedInCheckpointWithoutChangingIt() throws IOException {
+        ReflectionTestUtils.setField(caseMigrationProcessor, "caseProcessLimit", 10);
+        ReflectionTestUtils.setField(caseMigrationProcessor, "jurisdiction", "JURISDICTION");
+        Path checkpointFile = Files.writeString(
+            resultsDir.resolve("checkpoint.ndjson"),
+            "{\"caseType\":\"%s\",\"searchAfter\":\"3\",\"migratedCases\":[1],\"failedCases\":[3]}\n"
+                .formatted(CASE_TYPE));
+        String checkpoint = Files.readString(checkpointFile);
+        ReflectionTestUtils.setField(caseMigrationProcessor, "checkpointStore",
+                                     new CheckpointStore(new ObjectMapper(), checkpointFile.toString(), 1));
+        Path caseIds = Files.writeString(resultsDir.resolve("failed.txt"), "3\n");
+        ReflectionTestUtils.setField(caseMigrationProcessor, "caseIdsFile", caseIds.toString());
+        when(dataMigrationService.accepts()).thenReturn(candidate -> true);
+        when(idamUserCache.getUserToken()).thenReturn(USER_TOKEN);
+        StartEventResponse started = StartEventResponse.builder()
+            .caseDetails(CaseDetails.builder().id(3L).build())
+            .build();
+        when(coreCaseDataService.startEvent(USER_TOKEN, EVENT_ID, CASE_TYPE, 3L, "JURISDICTION")).thenReturn(started);
+
+        caseMigrationProcessor.migrateCases(CASE_TYPE);
+
+        assertArrayEquals(new long[] {3L}, caseMigrationProcessor.getMigratedCases().toArray());
+        assertEquals(checkpoint, Files.readString(checkpointFile));
+    }
+
+    @Test
+    public void shouldMigrateCasesOfAnExportWithoutSearching() throws IOException {
+        ReflectionTestUtils.setField(caseMigrationProcessor, "caseProcessLimit", 10);
+        ReflectionTestUtils.setField(caseMigrationProcessor, "jurisdiction", "J");
+        ReflectionTestUtils.setField(caseMigrationProcessor, "objectMapper", new ObjectMapper());
+        Path export = Files.writeString(resultsDir.resolve("cases.csv"),
+                                        "reference,case_type,state\n1,%s,Open\n2,%s,Closed\n3,Other,Open\n"
+                                            .formatted(CASE_TYPE, CASE_TYPE));
+        ReflectionTestUtils.setField(caseMigrationProcessor, "sourceFile", export.toString());
+        when(dataMigrationService.accepts()).thenReturn(candidate -> "Open".equals(candidate.getState()));
+        when(idamUserCache.getUserToken()).thenReturn(USER_TOKEN);
+
+        caseMigrationProcessor.migrateCases(CASE_TYPE);
+
+        verify(elasticSearchRepository, never()).streamCaseByCaseType(USER_TOKEN, CASE_TYPE, null);
+        verify(coreCaseDataService).update(USER_TOKEN, EVENT_ID, EVENT_SUMMARY, EVENT_DESCRIPTION, CASE_TYPE, 1L, "J");
+        verify(coreCaseDataService, times(1)).update(any(), any(), any(), any(), any(), any(), any());
+        assertArrayEquals(new long[] {1L}, caseMigrationProcessor.getMigratedCases().toArray());
+    }
+
+    @Test
+    public void shouldDiffMigratedCaseDataWithoutSubmittingInDryRun() {
+        ReflectionTestUtils.setField(caseMigrationProcessor, "caseProcessLimit", 10);
+        ReflectionTestUtils.setField(caseMigrationProcessor, "dryRun", true);
+        when(dataMigrationService.accepts()).thenReturn(candidate -> candidate.getId() == 1L);
+        when(idamUserCache.getUserToken()).thenReturn(USER_TOKEN);
+        when(elasticSearchRepository.streamCaseByCaseType(USER_TOKEN, CASE_TYPE, null))
+            .thenReturn(Stream.of(CaseDetails.builder().id(1L).jurisdiction("J").build(),
+                                  CaseDetails.builder().id(2L).jurisdiction("J").build()));
+        StartEventResponse started = StartEventResponse.builder()
+            .caseDetails(CaseDetails.builder().id(1L).data(Map.of("status", "Open")).build())
+            .build();
+        MigrationEvent migrationEvent = new MigrationEvent(
+            started.getCaseDetails(),
+            CaseDataContent.builder().data(Map.of("status", "Closed", "closedReason", "Migrated")).build()
+        );
+        when(coreCaseDataService.startEvent(USER_TOKEN, EVENT_ID, CASE_TYPE, 1L, "J")).thenReturn(started);
+        when(coreCaseDataService.migrate(started, EVENT_SUMMARY, EVENT_DESCRIPTION)).thenReturn(migrationEvent);
+
+        caseMigrationProcessor.migrateCases(CASE_TYPE);
+
+        verify(coreCaseDataService, never()).update(any(), any(), any(), any(), any(), any(), any());
+        verify(coreCaseDataService, never()).submitEvent(any(), any(), any());
+        verify(checkpointStore, never()).open(eq(CASE_TYPE), anyBoolean());
+        assertTrue(caseMigrationProcessor.getMigratedCases().isEmpty());
+        DryRunReport report = caseMigrationProcessor.getDryRunReport();
+        assertEquals(1, report.getAcceptedCount());
+        assertEquals(1, report.getRejectedCount());
+        assertEquals(1, report.getChangedCount());
+        assertEquals(Map.of("closedReason", 1L, "status", 1L), report.getChangedFields());
     }
 }
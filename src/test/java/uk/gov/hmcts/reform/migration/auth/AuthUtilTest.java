@@ -2,6 +2,11 @@ package uk.gov.hmcts.reform.migration.auth;
 
 import org.junit.jupiter.api.Test;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 
@@ -21,4 +26,19 @@ public class AuthUtilTest {
     public void shouldReturnBlankToken() {
         assertThat(AuthUtil.getBearerToken(""), is(""));
     }
+
+    @Test
+    public void shouldGetExpiryFromJwt() {
+        String payload = Base64.getUrlEncoder().withoutPadding()
+            .encodeToString("{\"sub\":\"ccd_data\",\"exp\":1700000000}".getBytes(StandardCharsets.UTF_8));
+        assertThat(AuthUtil.getExpiry("Bearer eyJhbGciOiJIUzUxMiJ9." + payload + ".signature"),
+                   is(Optional.of(Instant.ofEpochSecond(1700000000L))));
+    }
+
+    @Test
+    public void shouldReturnEmptyExpiryWhenTokenIsNotJwt() {
+        assertThat(AuthUtil.getExpiry("aaaa"), is(Optional.empty()));
+        assertThat(AuthUtil.getExpiry("Bearer aaaa.bbbb.cccc"), is(Optional.empty()));
+        assertThat(AuthUtil.getExpiry(null), is(Optional.empty()));
+    }
 }
@@ -0,0 +1,103 @@
+package uk.gov.hmcts.reform.migration.auth;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uk.gov.hmcts.reform.authorisation.generators.AuthTokenGenerator;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class CachingAuthTokenGeneratorTest {
+
+    private static final Instant NOW = Instant.parse("2024-01-01T10:00:00Z");
+
+    @Mock
+    private AuthTokenGenerator delegate;
+
+    @Mock
+    private Clock clock;
+
+    @Mock
+    private ScheduledExecutorService scheduler;
+
+    private CachingAuthTokenGenerator generator;
+
+    @BeforeEach
+    public void setUp() {
+        generator = new CachingAuthTokenGenerator(delegate, Duration.ofMinutes(5), Duration.ofHours(1),
+                                                  clock, scheduler);
+        when(clock.instant()).thenReturn(NOW);
+    }
+
+    @Test
+    public void shouldServeCachedTokenUntilExpiry() {
+        String token = jwtExpiringAt(NOW.plus(Duration.ofHours(4)));
+        when(delegate.generate()).thenReturn(token);
+
+        assertEquals(token, generator.generate());
+        assertEquals(token, generator.generate());
+        assertEquals(token, generator.generate());
+
+        verify(delegate, times(1)).generate();
+        assertEquals(2, generator.getHitCount());
+        assertEquals(1, generator.getMissCount());
+        assertEquals(1, generator.getRefreshCount());
+    }
+
+    @Test
+    public void shouldScheduleBackgroundRefreshAheadOfExpiry() {
+        String first = jwtExpiringAt(NOW.plus(Duration.ofHours(4)));
+        String second = jwtExpiringAt(NOW.plus(Duration.ofHours(8)));
+        when(delegate.generate()).thenReturn(first, second);
+
+        generator.generate();
+
+        ArgumentCaptor<Runnable> refresh = ArgumentCaptor.forClass(Runnable.class);
+        verify(scheduler).schedule(refresh.capture(),
+                                   eq(Duration.ofHours(4).minusMinutes(5).toMillis()),
+                                   eq(TimeUnit.MILLISECONDS));
+
+        refresh.getValue().run();
+
+        assertEquals(second, generator.generate());
+        assertEquals(2, generator.getRefreshCount());
+        assertEquals(1, generator.getMissCount());
+        verify(scheduler, times(2)).schedule(any(Runnable.class), anyLong(), eq(TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void shouldFallBackToDefaultLifetimeWhenTokenIsNotJwt() {
+        when(delegate.generate()).thenReturn("opaque-token");
+
+        generator.generate();
+
+        verify(scheduler).schedule(any(Runnable.class),
+                                   eq(Duration.ofMinutes(55).toMillis()),
+                                   eq(TimeUnit.MILLISECONDS));
+    }
+
+    private static String jwtExpiringAt(Instant expiry) {
+        String payload = "{\"sub\":\"ccd_data\",\"exp\":" + expiry.getEpochSecond() + "}";
+        return "eyJhbGciOiJIUzUxMiJ9."
+            + Base64.getUrlEncoder().withoutPadding().encodeToString(payload.getBytes(StandardCharsets.UTF_8))
+            + ".signature";
+    }
+}
@@ -0,0 +1,90 @@
+package uk.gov.hmcts.reform.migration.auth;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uk.gov.hmcts.reform.idam.client.models.UserInfo;
+import uk.gov.hmcts.reform.migration.repository.IdamRepository;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class IdamUserCacheTest {
+
+    private static final Instant NOW = Instant.parse("2024-01-01T10:00:00Z");
+    private static final String USER_TOKEN = "Bearer user_token";
+
+    @Mock
+    private IdamRepository idamRepository;
+
+    @Mock
+    private Clock clock;
+
+    private IdamUserCache idamUserCache;
+
+    @BeforeEach
+    public void setUp() {
+        idamUserCache = new IdamUserCache(idamRepository, Duration.ofMinutes(10), Duration.ofHours(1), clock);
+        when(idamRepository.generateUserToken()).thenReturn("user_token");
+        when(idamRepository.getUserInfo(USER_TOKEN)).thenReturn(UserInfo.builder().uid("30").build());
+    }
+
+    @Test
+    public void shouldReuseTokenAndUserIdAcrossCalls() {
+        when(clock.instant()).thenReturn(NOW);
+
+        assertEquals(USER_TOKEN, idamUserCache.getUserToken());
+        assertEquals(USER_TOKEN, idamUserCache.getUserToken());
+        assertEquals("30", idamUserCache.getUserId(USER_TOKEN));
+        assertEquals("30", idamUserCache.getUserId("user_token"));
+
+        verify(idamRepository, times(1)).generateUserToken();
+        verify(idamRepository, times(1)).getUserInfo(USER_TOKEN);
+    }
+
+    @Test
+    public void shouldRefreshTokenBeforeItExpires() {
+        when(clock.instant()).thenReturn(NOW, NOW.plus(Duration.ofMinutes(49)), NOW.plus(Duration.ofMinutes(51)));
+
+        idamUserCache.getUserToken();
+        idamUserCache.getUserToken();
+        verify(idamRepository, times(1)).generateUserToken();
+
+        idamUserCache.getUserToken();
+        verify(idamRepository, times(2)).generateUserToken();
+    }
+
+    @Test
+    public void shouldRefreshOnceWhenCalledConcurrently() throws Exception {
+        when(clock.instant()).thenReturn(NOW);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> tokens = new ArrayList<>();
+            for (int i = 0; i < 32; i++) {
+                tokens.add(executor.submit(idamUserCache::getUserToken));
+            }
+            for (Future<String> token : tokens) {
+                assertEquals(USER_TOKEN, token.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        verify(idamRepository, times(1)).generateUserToken();
+    }
+}
@@ -0,0 +1,139 @@
+package uk.gov.hmcts.reform.migration.ccd;
+
+import feign.FeignException;
+import feign.Request;
+import feign.RetryableException;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class AdaptiveRateLimiterTest {
+
+    @Test
+    public void shouldRetryTransientFailuresUntilSuccess() {
+        AdaptiveRateLimiter rateLimiter = new AdaptiveRateLimiter(0, 1, 0.5, 5000, 3, 1, 2);
+        FeignException unavailable = feignException(503);
+        AtomicInteger attempts = new AtomicInteger();
+
+        String response = rateLimiter.call(() -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw unavailable;
+            }
+            return "ok";
+        });
+
+        assertEquals("ok", response);
+        assertEquals(3, attempts.get());
+    }
+
+    @Test
+    public void shouldNotRetryClientErrors() {
+        AdaptiveRateLimiter rateLimiter = new AdaptiveRateLimiter(0, 1, 0.5, 5000, 3, 1, 2);
+        FeignException unprocessable = feignException(422);
+        AtomicInteger attempts = new AtomicInteger();
+
+        FeignException thrown = assertThrows(FeignException.class, () -> rateLimiter.call(() -> {
+            attempts.incrementAndGet();
+            throw unprocessable;
+        }));
+
+        assertSame(unprocessable, thrown);
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    public void shouldGiveUpAfterMaxAttempts() {
+        AdaptiveRateLimiter rateLimiter = new AdaptiveRateLimiter(0, 1, 0.5, 5000, 2, 1, 2);
+        FeignException gatewayTimeout = feignException(504);
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(FeignException.class, () -> rateLimiter.call(() -> {
+            attempts.incrementAndGet();
+            throw gatewayTimeout;
+        }));
+
+        assertEquals(2, attempts.get());
+    }
+
+    @Test
+    public void shouldReduceRateWhenThrottledAndRecoverOnSuccess() {
+        AdaptiveRateLimiter rateLimiter = new AdaptiveRateLimiter(1000, 10, 0.5, 5000, 2, 0, 0);
+        FeignException tooManyRequests = feignException(429);
+        AtomicInteger attempts = new AtomicInteger();
+
+        rateLimiter.call(() -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw tooManyRequests;
+            }
+            return "ok";
+        });
+
+        assertTrue(rateLimiter.getCurrentRate() < 1000);
+        assertTrue(rateLimiter.getCurrentRate() >= 500);
+
+        double reduced = rateLimiter.getCurrentRate();
+        rateLimiter.call(() -> "ok");
+        assertTrue(rateLimiter.getCurrentRate() > reduced);
+    }
+
+    @Test
+    public void shouldNotRetryWriteThatMayHaveReachedCcd() {
+        AdaptiveRateLimiter rateLimiter = new AdaptiveRateLimiter(0, 1, 0.5, 5000, 3, 1, 2);
+
+        for (FeignException e : new FeignException[] {
+            feignException(502), feignException(504), retryableException(new SocketTimeoutException("Read timed out"))
+        }) {
+            AtomicInteger attempts = new AtomicInteger();
+            assertSame(e, assertThrows(FeignException.class, () -> rateLimiter.callWrite(() -> {
+                attempts.incrementAndGet();
+                throw e;
+            })));
+            assertEquals(1, attempts.get());
+        }
+    }
+
+    @Test
+    public void shouldRetryWriteThatCcdRefused() {
+        AdaptiveRateLimiter rateLimiter = new AdaptiveRateLimiter(0, 1, 0.5, 5000, 3, 1, 2);
+        FeignException unavailable = feignException(503);
+        FeignException connectFailure = retryableException(new ConnectException("Connection refused"));
+        AtomicInteger attempts = new AtomicInteger();
+
+        String response = rateLimiter.callWrite(() -> {
+            int attempt = attempts.incrementAndGet();
+            if (attempt < 3) {
+                throw attempt == 1 ? unavailable : connectFailure;
+            }
+            return "ok";
+        });
+
+        assertEquals("ok", response);
+        assertEquals(3, attempts.get());
+        assertTrue(AdaptiveRateLimiter.isRefused(feignException(429)));
+        assertFalse(AdaptiveRateLimiter.isRefused(feignException(500)));
+    }
+
+    private static RetryableException retryableException(IOException cause) {
+        Request request = Request.create(Request.HttpMethod.POST, "http://ccd-data-store-api/cases", Map.of(),
+                                         null, null, null);
+        return new RetryableException(-1, cause.getMessage(), Request.HttpMethod.POST, cause, (Long) null, request);
+    }
+
+    private static FeignException feignException(int status) {
+        FeignException exception = mock(FeignException.class);
+        when(exception.status()).thenReturn(status);
+        return exception;
+    }
+}
@@ -0,0 +1,51 @@
+package uk.gov.hmcts.reform.migration.ccd;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+public class CaseDataFingerprintTest {
+
+    @Test
+    public void shouldMatchEqualDataWhateverTheKeyOrder() {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("name", "Smith");
+        data.put("parties", List.of(Map.of("id", "1", "value", Map.of("age", 30))));
+        Map<String, Object> reordered = new LinkedHashMap<>();
+        reordered.put("parties", new ArrayList<>(List.of(Map.of("value", Map.of("age", 30L), "id", "1"))));
+        reordered.put("name", "Smith");
+
+        assertEquals(CaseDataFingerprint.of(data), CaseDataFingerprint.of(reordered));
+    }
+
+    @Test
+    public void shouldMatchNumbersOfEqualValue() {
+        assertEquals(CaseDataFingerprint.of(1), CaseDataFingerprint.of(1L));
+        assertEquals(CaseDataFingerprint.of(1), CaseDataFingerprint.of(1.0));
+        assertEquals(CaseDataFingerprint.of(1.5), CaseDataFingerprint.of(new BigDecimal("1.50")));
+        assertNotEquals(CaseDataFingerprint.of(1), CaseDataFingerprint.of("1"));
+        assertNotEquals(CaseDataFingerprint.of(1.5), CaseDataFingerprint.of(2.5));
+    }
+
+    @Test
+    public void shouldTellChangedDataApart() {
+        long fingerprint = CaseDataFingerprint.of(Map.of("a", "x", "b", List.of("y", "z")));
+
+        assertNotEquals(fingerprint, CaseDataFingerprint.of(Map.of("a", "x", "b", List.of("z", "y"))));
+        assertNotEquals(fingerprint, CaseDataFingerprint.of(Map.of("a", "x", "b", List.of("y"))));
+        assertNotEquals(fingerprint, CaseDataFingerprint.of(Map.of("a", "x", "c", List.of("y", "z"))));
+        assertNotEquals(fingerprint, CaseDataFingerprint.of(Map.of("a", "b", "x", List.of("y", "z"))));
+        assertNotEquals(CaseDataFingerprint.of(Map.of("a", "x")), CaseDataFingerprint.of(Map.of("x", "a")));
+        assertNotEquals(CaseDataFingerprint.of(Arrays.asList("a", null)), CaseDataFingerprint.of(List.of("a")));
+        assertNotEquals(CaseDataFingerprint.of(Map.of()), CaseDataFingerprint.of(List.of()));
+        assertNotEquals(CaseDataFingerprint.of(true), CaseDataFingerprint.of("true"));
+    }
+}
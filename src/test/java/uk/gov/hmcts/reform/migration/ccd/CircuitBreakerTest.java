@@ -0,0 +1,263 @@
+package uk.gov.hmcts.reform.migration.ccd;
+
+import feign.FeignException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import uk.gov.hmcts.reform.migration.metrics.MigrationMetrics;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class CircuitBreakerTest {
+
+    private final MigrationMetrics migrationMetrics = new MigrationMetrics(new SimpleMeterRegistry(), "");
+
+    @Test
+    public void shouldOpenWhenFailureRateReachesThreshold() {
+        CircuitBreaker circuitBreaker = circuitBreaker(60_000, 0);
+        FeignException unavailable = feignException(503);
+
+        assertSame(unavailable, assertThrows(FeignException.class, () -> call(circuitBreaker, () -> {
+            throw unavailable;
+        })));
+        call(circuitBreaker, () -> "ok");
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        call(circuitBreaker, () -> "ok");
+        assertThrows(FeignException.class, () -> call(circuitBreaker, () -> {
+            throw unavailable;
+        }));
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+
+    @Test
+    public void shouldNotCountClientErrorsAsFailures() {
+        CircuitBreaker circuitBreaker = circuitBreaker(60_000, 0);
+        FeignException unprocessable = feignException(422);
+
+        for (int i = 0; i < 4; i++) {
+            assertThrows(FeignException.class, () -> call(circuitBreaker, () -> {
+                throw unprocessable;
+            }));
+        }
+
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    public void shouldPauseCallsWhileOpenAndCloseAfterSuccessfulProbes() {
+        CircuitBreaker circuitBreaker = circuitBreaker(50, 0);
+        openWithFailures(circuitBreaker);
+
+        long start = System.nanoTime();
+        assertEquals("ok", call(circuitBreaker, () -> "ok"));
+        assertTrue(System.nanoTime() - start >= 40_000_000L);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+
+        call(circuitBreaker, () -> "ok");
+
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    public void shouldWaitBeforeTimedPartOfCall() {
+        CircuitBreaker circuitBreaker = circuitBreaker(50, 0);
+        openWithFailures(circuitBreaker);
+        AtomicLong timedNanos = new AtomicLong();
+
+        long start = System.nanoTime();
+        circuitBreaker.call(() -> {
+            long timedStart = System.nanoTime();
+            String response = circuitBreaker.attempt(() -> "ok");
+            timedNanos.set(System.nanoTime() - timedStart);
+            return response;
+        });
+
+        assertTrue(System.nanoTime() - start >= 40_000_000L);
+        assertTrue(timedNanos.get() < 40_000_000L);
+    }
+
+    @Test
+    public void shouldWaitAgainWhenBreakerOpensBeforeRequestIsMade() {
+        CircuitBreaker circuitBreaker = circuitBreaker(10, 0);
+        AtomicInteger runs = new AtomicInteger();
+
+        String response = circuitBreaker.call(() -> {
+            if (runs.incrementAndGet() == 1) {
+                openWithFailures(circuitBreaker);
+            }
+            return circuitBreaker.attempt(() -> "ok");
+        });
+
+        assertEquals("ok", response);
+        assertEquals(2, runs.get());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+    }
+
+    @Test
+    public void shouldOpenAgainWhenProbeFails() {
+        CircuitBreaker circuitBreaker = circuitBreaker(10, 0);
+        openWithFailures(circuitBreaker);
+
+        assertThrows(FeignException.class, () -> call(circuitBreaker, () -> {
+            throw feignException(504);
+        }));
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+
+    @Test
+    public void shouldMakeCallAgainWhenItFailsWhileOpen() {
+        CircuitBreaker circuitBreaker = circuitBreaker(10, 2);
+        FeignException unavailable = feignException(503);
+        AtomicBoolean outage = new AtomicBoolean(true);
+        AtomicInteger attempts = new AtomicInteger();
+        assertThrows(FeignException.class, () -> call(circuitBreaker, () -> {
+            throw unavailable;
+        }));
+        call(circuitBreaker, () -> "ok");
+        call(circuitBreaker, () -> "ok");
+
+        String response = call(circuitBreaker, () -> {
+            attempts.incrementAndGet();
+            if (outage.getAndSet(false)) {
+                throw unavailable;
+            }
+            return "ok";
+        });
+
+        assertEquals("ok", response);
+        assertEquals(2, attempts.get());
+    }
+
+    @Test
+    public void shouldFailCallAfterMaxRequeues() {
+        CircuitBreaker circuitBreaker = circuitBreaker(10, 1);
+        FeignException unavailable = feignException(503);
+        openWithFailures(circuitBreaker);
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(FeignException.class, () -> call(circuitBreaker, () -> {
+            attempts.incrementAndGet();
+            throw unavailable;
+        }));
+
+        assertEquals(2, attempts.get());
+    }
+
+    @Test
+    public void shouldNotMakeWriteAgainThatMayHaveReachedCcd() {
+        CircuitBreaker circuitBreaker = circuitBreaker(10, 2);
+        openWithFailures(circuitBreaker);
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(FeignException.class, () -> callWrite(circuitBreaker, () -> {
+            attempts.incrementAndGet();
+            throw feignException(504);
+        }));
+
+        assertEquals(1, attempts.get());
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+
+    @Test
+    public void shouldRequeueStartEventButNotSubmitEventAfterGatewayTimeout() {
+        CircuitBreaker startBreaker = circuitBreaker(10, 2);
+        CircuitBreaker submitBreaker = circuitBreaker(10, 2);
+        openWithFailures(startBreaker);
+        openWithFailures(submitBreaker);
+        FeignException gatewayTimeout = feignException(504);
+        AtomicInteger startEvents = new AtomicInteger();
+        AtomicInteger submitEvents = new AtomicInteger();
+
+        String started = call(startBreaker, () -> {
+            if (startEvents.incrementAndGet() == 1) {
+                throw gatewayTimeout;
+            }
+            return "started";
+        });
+        assertThrows(FeignException.class, () -> callWrite(submitBreaker, () -> {
+            submitEvents.incrementAndGet();
+            throw gatewayTimeout;
+        }));
+
+        assertEquals("started", started);
+        assertEquals(2, startEvents.get());
+        assertEquals(1, submitEvents.get());
+    }
+
+    @Test
+    public void shouldGiveProbeSlotBackWhenProbeEndsWithError() {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(migrationMetrics, true, 4, 4, 50, 60_000, 100, 10, 1, 0);
+        openWithFailures(circuitBreaker);
+
+        assertThrows(StackOverflowError.class, () -> call(circuitBreaker, () -> {
+            throw new StackOverflowError();
+        }));
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> call(circuitBreaker, () -> "ok"));
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    public void shouldOpenWhenCallsAreSlow() {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(migrationMetrics, true, 4, 2, 50, 0, 100, 60_000, 1, 0);
+
+        call(circuitBreaker, () -> sleep(2));
+        call(circuitBreaker, () -> sleep(2));
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+
+    /**
+     * Window of 4 calls, opening at half of them failed once 4 are in, with two probe calls when half open.
+     */
+    private CircuitBreaker circuitBreaker(long openMillis, int maxRequeues) {
+        return new CircuitBreaker(migrationMetrics, true, 4, 4, 50, 60_000, 100, openMillis, 2, maxRequeues);
+    }
+
+    private static <T> T call(CircuitBreaker circuitBreaker, Supplier<T> request) {
+        return circuitBreaker.call(() -> circuitBreaker.attempt(request));
+    }
+
+    private static <T> T callWrite(CircuitBreaker circuitBreaker, Supplier<T> request) {
+        return circuitBreaker.callWrite(() -> circuitBreaker.attempt(request));
+    }
+
+    private static void openWithFailures(CircuitBreaker circuitBreaker) {
+        FeignException unavailable = feignException(503);
+        for (int i = 0; i < 4; i++) {
+            assertThrows(FeignException.class, () -> call(circuitBreaker, () -> {
+                throw unavailable;
+            }));
+        }
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+
+    private static String sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "ok";
+    }
+
+    private static FeignException feignException(int status) {
+        FeignException exception = mock(FeignException.class);
+        when(exception.status()).thenReturn(status);
+        return exception;
+    }
+}
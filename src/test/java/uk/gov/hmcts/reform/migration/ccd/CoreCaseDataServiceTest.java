@@ -1,26 +1,40 @@
 package uk.gov.hmcts.reform.migration.ccd;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 import uk.gov.hmcts.reform.authorisation.generators.AuthTokenGenerator;
 import uk.gov.hmcts.reform.ccd.client.CoreCaseDataApi;
 import uk.gov.hmcts.reform.ccd.client.model.CaseDataContent;
 import uk.gov.hmcts.reform.ccd.client.model.CaseDetails;
 import uk.gov.hmcts.reform.ccd.client.model.Event;
 import uk.gov.hmcts.reform.ccd.client.model.StartEventResponse;
-import uk.gov.hmcts.reform.idam.client.IdamClient;
-import uk.gov.hmcts.reform.idam.client.models.UserInfo;
+import uk.gov.hmcts.reform.migration.auth.IdamUserCache;
+import uk.gov.hmcts.reform.migration.metrics.MigrationMetrics;
+import uk.gov.hmcts.reform.migration.service.CaseData;
 import uk.gov.hmcts.reform.migration.service.DataMigrationService;
+import uk.gov.hmcts.reform.migration.service.InPlaceDataMigrationService;
 
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.function.Predicate;
 
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -42,7 +56,7 @@ public class CoreCaseDataServiceTest {
     CoreCaseDataApi coreCaseDataApi;
 
     @Mock
-    private IdamClient idamClient;
+    private IdamUserCache idamUserCache;
 
     @Mock
     private AuthTokenGenerator authTokenGenerator;
@@ -50,6 +64,16 @@ public class CoreCaseDataServiceTest {
     @Mock
     private DataMigrationService<Map<String, Object>> dataMigrationService;
 
+    @Spy
+    private AdaptiveRateLimiter rateLimiter = new AdaptiveRateLimiter(0, 1, 0.5, 5000, 1, 0, 0);
+
+    @Spy
+    private MigrationMetrics migrationMetrics = new MigrationMetrics(new SimpleMeterRegistry(), "");
+
+    @Spy
+    private CircuitBreaker circuitBreaker = new CircuitBreaker(migrationMetrics, true, 50, 20, 50, 10000, 80,
+                                                               30000, 3, 3);
+
 
     @BeforeEach
     public void setUp() {
@@ -58,14 +82,8 @@ public class CoreCaseDataServiceTest {
     @Test
     public void shouldUpdateTheCase() {
         // given
-        UserInfo userInfo = UserInfo.builder()
-            .uid("30")
-            .givenName("Test")
-            .familyName("Surname")
-            .build();
-
         CaseDetails caseDetails3 = createCaseDetails(CASE_ID, "case-3");
-        setupMocks(userInfo, caseDetails3.getData());
+        setupMocks(caseDetails3.getData());
 
         //when
         CaseDetails update = underTest.update(AUTH_TOKEN, EVENT_ID, EVENT_SUMMARY, EVENT_DESC, CASE_TYPE,
@@ -80,6 +98,112 @@ public class CoreCaseDataServiceTest {
         assertThat(update.getData().get("appRespondentFMName"), is("TestRespondant"));
     }
 
+    @Test
+    public void shouldNotSubmitWhenInPlaceMigrationLeavesDataUnchanged() {
+        CaseDetails caseDetails = createCaseDetails(CASE_ID, "case-1");
+        ReflectionTestUtils.setField(underTest, "skipUnchanged", true);
+        ReflectionTestUtils.setField(underTest, "dataMigrationService", inPlaceMigration("PADMAJA"));
+        startEventReturns(caseDetails.getData());
+
+        CaseDetails update = underTest.update(AUTH_TOKEN, EVENT_ID, EVENT_SUMMARY, EVENT_DESC, CASE_TYPE,
+                                              caseDetails.getId(), caseDetails.getJurisdiction());
+
+        assertThat(update, sameInstance(CoreCaseDataService.UNCHANGED));
+        verify(coreCaseDataApi, never()).submitEventForCaseWorker(anyString(), anyString(), anyString(), any(),
+                                                                  anyString(), anyString(), anyBoolean(), any());
+    }
+
+    @Test
+    public void shouldNotSubmitWhenMigrationReturnsEqualData() {
+        CaseDetails caseDetails = createCaseDetails(CASE_ID, "case-1");
+        ReflectionTestUtils.setField(underTest, "skipUnchanged", true);
+        when(dataMigrationService.migrate(caseDetails.getData())).thenReturn(new HashMap<>(caseDetails.getData()));
+        startEventReturns(caseDetails.getData());
+
+        CaseDetails update = underTest.update(AUTH_TOKEN, EVENT_ID, EVENT_SUMMARY, EVENT_DESC, CASE_TYPE,
+                                              caseDetails.getId(), caseDetails.getJurisdiction());
+
+        assertThat(update, sameInstance(CoreCaseDataService.UNCHANGED));
+        verify(coreCaseDataApi, never()).submitEventForCaseWorker(anyString(), anyString(), anyString(), any(),
+                                                                  anyString(), anyString(), anyBoolean(), any());
+    }
+
+    @Test
+    public void shouldSubmitDataChangedInPlaceByMigration() {
+        CaseDetails caseDetails = createCaseDetails(CASE_ID, "case-1");
+        ReflectionTestUtils.setField(underTest, "skipUnchanged", true);
+        when(dataMigrationService.migrate(caseDetails.getData())).thenAnswer(invocation -> {
+            Map<String, Object> data = invocation.getArgument(0);
+            data.put("solicitorName", "Padmaja");
+            return data;
+        });
+
+        MigrationEvent migrationEvent = underTest.migrate(startEventResponse(caseDetails.getData()), EVENT_SUMMARY,
+                                                          EVENT_DESC);
+
+        assertThat(migrationEvent.unchanged(), is(false));
+    }
+
+    @Test
+    public void shouldSubmitCopyChangedByInPlaceMigration() {
+        CaseDetails caseDetails = createCaseDetails(CASE_ID, "case-1");
+        Map<String, Object> original = caseDetails.getData();
+        ReflectionTestUtils.setField(underTest, "dataMigrationService", inPlaceMigration("Padmaja"));
+        StartEventResponse startEventResponse = startEventResponse(original);
+
+        MigrationEvent migrationEvent = underTest.migrate(startEventResponse, EVENT_SUMMARY, EVENT_DESC);
+
+        assertThat(migrationEvent.unchanged(), is(false));
+        Map<String, Object> migrated = migrationEvent.caseDataContent().getData();
+        assertThat(migrated, not(sameInstance(original)));
+        assertThat(migrated.get("solicitorName"), is("Padmaja"));
+        assertThat(migrated.get("solicitorEmail"), is("Padmaja.Ramisetti@hmcts.net"));
+        assertThat(original.get("solicitorName"), is("PADMAJA"));
+    }
+
+    @Test
+    public void shouldTimeStartEventRequestWithoutRateLimiterPacing() {
+        ReflectionTestUtils.setField(underTest, "rateLimiter", new AdaptiveRateLimiter(2, 1, 0.5, 5000, 1, 0, 0));
+        startEventReturns(new HashMap<>());
+
+        long start = System.nanoTime();
+        underTest.startEvent(AUTH_TOKEN, EVENT_ID, CASE_TYPE, Long.valueOf(CASE_ID), null);
+        underTest.startEvent(AUTH_TOKEN, EVENT_ID, CASE_TYPE, Long.valueOf(CASE_ID), null);
+
+        assertThat(System.nanoTime() - start >= 400_000_000L, is(true));
+        assertThat(migrationMetrics.getMeanStartEventNanos() < 200_000_000L, is(true));
+    }
+
+    private static InPlaceDataMigrationService inPlaceMigration(String solicitorName) {
+        return new InPlaceDataMigrationService() {
+            @Override
+            public void migrate(CaseData data) {
+                data.set("solicitorName", solicitorName);
+            }
+
+            @Override
+            public Predicate<CaseDetails> accepts() {
+                return caseDetails -> true;
+            }
+        };
+    }
+
+    private void startEventReturns(Map<String, Object> data) {
+        when(idamUserCache.getUserId(AUTH_TOKEN)).thenReturn(USER_ID);
+        when(authTokenGenerator.generate()).thenReturn(AUTH_TOKEN);
+        when(coreCaseDataApi.startEventForCaseWorker(AUTH_TOKEN, AUTH_TOKEN, USER_ID,
+                                                     null, CASE_TYPE, CASE_ID, EVENT_ID))
+            .thenReturn(startEventResponse(data));
+    }
+
+    private static StartEventResponse startEventResponse(Map<String, Object> data) {
+        return StartEventResponse.builder()
+            .eventId(EVENT_ID)
+            .token(EVENT_TOKEN)
+            .caseDetails(CaseDetails.builder().id(123456789L).data(data).build())
+            .build();
+    }
+
     private CaseDetails createCaseDetails(String id, String value) {
         LinkedHashMap<String, Object> data = new LinkedHashMap<>();
         data.put("solicitorEmail", "Padmaja.Ramisetti@hmcts.net");
@@ -94,8 +218,8 @@ public class CoreCaseDataServiceTest {
             .build();
     }
 
-    private void setupMocks(UserInfo userInfo, Map<String, Object> data) {
-        when(idamClient.getUserInfo(AUTH_TOKEN)).thenReturn(userInfo);
+    private void setupMocks(Map<String, Object> data) {
+        when(idamUserCache.getUserId(AUTH_TOKEN)).thenReturn(USER_ID);
 
         when(authTokenGenerator.generate()).thenReturn(AUTH_TOKEN);
 
@@ -113,7 +237,7 @@ public class CoreCaseDataServiceTest {
         when(dataMigrationService.migrate(data))
             .thenReturn(data);
 
-        when(coreCaseDataApi.startEventForCaseWorker(AUTH_TOKEN, AUTH_TOKEN, "30",
+        when(coreCaseDataApi.startEventForCaseWorker(AUTH_TOKEN, AUTH_TOKEN, USER_ID,
                                                      null, CASE_TYPE, CASE_ID, EVENT_ID
         ))
             .thenReturn(startEventResponse);
@@ -0,0 +1,106 @@
+package uk.gov.hmcts.reform.migration.checkpoint;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CheckpointStoreTest {
+
+    private static final String CASE_TYPE = "CASE_TYPE";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void shouldNotTrackProgressWhenNoFileConfigured() {
+        CheckpointStore store = new CheckpointStore(new ObjectMapper(), "", 1);
+        try (CheckpointTracker tracker = store.open(CASE_TYPE, true)) {
+            tracker.caseStarted(1L);
+            tracker.caseMigrated(1L);
+            assertNull(tracker.getSearchAfter());
+            assertFalse(tracker.isCompleted(1L));
+        }
+    }
+
+    @Test
+    public void shouldResumeAfterLowestCaseStillInFlight() throws IOException {
+        Path file = tempDir.resolve("checkpoint.ndjson");
+        CheckpointStore store = new CheckpointStore(new ObjectMapper(), file.toString(), 2);
+
+        CheckpointTracker tracker = store.open(CASE_TYPE, true);
+        tracker.caseStarted(10L);
+        tracker.caseStarted(11L);
+        tracker.caseStarted(12L);
+        tracker.caseMigrated(10L);
+        tracker.caseFailed(12L);
+
+        assertEquals(1, Files.readAllLines(file).size());
+
+        CheckpointTracker resumed = store.open(CASE_TYPE, true);
+        assertEquals("10", resumed.getSearchAfter());
+        assertTrue(resumed.isCompleted(10L));
+        assertTrue(resumed.isCompleted(12L));
+        assertFalse(resumed.isCompleted(11L));
+        assertEquals(2, resumed.getCompletedCount());
+    }
+
+    @Test
+    public void shouldCommitLastStartedCaseOnClose() {
+        Path file = tempDir.resolve("checkpoint.ndjson");
+        CheckpointStore store = new CheckpointStore(new ObjectMapper(), file.toString(), 100);
+
+        try (CheckpointTracker tracker = store.open(CASE_TYPE, true)) {
+            tracker.caseStarted(10L);
+            tracker.caseStarted(11L);
+            tracker.caseMigrated(10L);
+            tracker.caseSkipped(11L);
+        }
+
+        CheckpointTracker resumed = store.open(CASE_TYPE, true);
+        assertEquals("11", resumed.getSearchAfter());
+        assertTrue(resumed.isCompleted(10L));
+        assertNull(store.open("OTHER_CASE_TYPE", true).getSearchAfter());
+    }
+
+    @Test
+    public void shouldResumeRunOutOfReferenceOrderFromFinishedCasesOnly() {
+        Path file = tempDir.resolve("checkpoint.ndjson");
+        CheckpointStore store = new CheckpointStore(new ObjectMapper(), file.toString(), 100);
+
+        try (CheckpointTracker tracker = store.open(CASE_TYPE, false)) {
+            tracker.caseStarted(12L);
+            tracker.caseStarted(10L);
+            tracker.caseStarted(11L);
+            tracker.caseMigrated(12L);
+            tracker.caseFailed(11L);
+        }
+
+        CheckpointTracker resumed = store.open(CASE_TYPE, false);
+        assertNull(resumed.getSearchAfter());
+        assertTrue(resumed.isCompleted(12L));
+        assertTrue(resumed.isCompleted(11L));
+        assertFalse(resumed.isCompleted(10L));
+        assertNull(store.open(CASE_TYPE, true).getSearchAfter());
+    }
+
+    @Test
+    public void shouldIgnoreTruncatedLastLine() throws IOException {
+        Path file = tempDir.resolve("checkpoint.ndjson");
+        Files.writeString(file, "{\"caseType\":\"CASE_TYPE\",\"searchAfter\":\"5\",\"migratedCases\":[5],"
+            + "\"failedCases\":[]}\n{\"caseType\":\"CASE_TY");
+        CheckpointStore store = new CheckpointStore(new ObjectMapper(), file.toString(), 100);
+
+        CheckpointTracker resumed = store.open(CASE_TYPE, true);
+        assertEquals("5", resumed.getSearchAfter());
+        assertTrue(resumed.isCompleted(5L));
+    }
+}
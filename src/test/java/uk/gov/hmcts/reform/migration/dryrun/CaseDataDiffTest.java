@@ -0,0 +1,73 @@
+package uk.gov.hmcts.reform.migration.dryrun;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CaseDataDiffTest {
+
+    @Test
+    public void shouldCountAddedRemovedAndModifiedLeafPaths() {
+        Map<String, Object> before = Map.of(
+            "status", "Open",
+            "applicant", Map.of("name", "Jo", "phone", "0123"),
+            "legacyFlag", "Yes",
+            "unchanged", 1
+        );
+        Map<String, Object> after = Map.of(
+            "status", "Closed",
+            "applicant", Map.of("name", "Jo", "email", "jo@example.com"),
+            "unchanged", 1,
+            "closedReason", "Migrated"
+        );
+
+        CaseDataDiff diff = CaseDataDiff.between(before, after);
+
+        assertEquals(2, diff.added());
+        assertEquals(2, diff.removed());
+        assertEquals(1, diff.modified());
+        assertEquals(Set.of("status", "applicant", "legacyFlag", "closedReason"), diff.changedFields());
+    }
+
+    @Test
+    public void shouldCompareCollectionsByIndex() {
+        Map<String, Object> before = Map.of("parties", List.of(Map.of("id", "1"), Map.of("id", "2")));
+        Map<String, Object> after = Map.of("parties", List.of(Map.of("id", "1"), Map.of("id", "3"), Map.of("id", "4")));
+
+        CaseDataDiff diff = CaseDataDiff.between(before, after);
+
+        assertEquals(1, diff.added());
+        assertEquals(0, diff.removed());
+        assertEquals(1, diff.modified());
+    }
+
+    @Test
+    public void shouldBeEmptyWhenNothingChanged() {
+        CaseDataDiff diff = CaseDataDiff.between(Map.of("status", "Open"), Map.of("status", "Open"));
+
+        assertTrue(diff.isEmpty());
+        assertTrue(diff.changedFields().isEmpty());
+    }
+
+    @Test
+    public void shouldCopyNestedMapsAndLists() {
+        Map<String, Object> applicant = new HashMap<>(Map.of("name", "Jo"));
+        Map<String, Object> data = new HashMap<>(Map.of("applicant", applicant,
+                                                        "notes", new ArrayList<>(List.of("first"))));
+
+        Map<String, Object> copy = CaseDataDiff.copy(data);
+        applicant.put("name", "Sam");
+
+        assertEquals(Map.of("name", "Jo"), copy.get("applicant"));
+        assertNotSame(data.get("notes"), copy.get("notes"));
+        assertEquals(1, CaseDataDiff.between(copy, data).modified());
+    }
+}
@@ -0,0 +1,50 @@
+package uk.gov.hmcts.reform.migration.dryrun;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class DryRunReportTest {
+
+    private static final long CASE_NANOS = TimeUnit.MILLISECONDS.toNanos(150);
+
+    @Test
+    public void shouldSummariseDiffsAndMatchRate() {
+        DryRunReport report = new DryRunReport();
+
+        report.caseMigrated(new CaseDataDiff(1, 0, 1, Set.of("status", "closedReason")), CASE_NANOS);
+        report.caseMigrated(new CaseDataDiff(0, 0, 1, Set.of("status")), CASE_NANOS);
+        report.caseMigrated(new CaseDataDiff(0, 0, 0, Set.of()), CASE_NANOS);
+        report.caseRejected();
+
+        assertEquals(3, report.getAcceptedCount());
+        assertEquals(1, report.getRejectedCount());
+        assertEquals(2, report.getChangedCount());
+        assertEquals(0.75, report.getMatchRate());
+        assertEquals(Map.of("status", 2L, "closedReason", 1L), report.getChangedFields());
+    }
+
+    @Test
+    public void shouldEstimateRunTimeIncludingTheSkippedSubmit() {
+        DryRunReport report = new DryRunReport();
+        report.caseMigrated(new CaseDataDiff(0, 0, 1, Set.of("status")), CASE_NANOS);
+        report.caseRejected();
+        double submitNanos = TimeUnit.MILLISECONDS.toNanos(50);
+
+        // 200ms per case on 4 threads is 20 cases/s, and half of the 1000 cases would be migrated
+        assertEquals(20.0, report.estimateThroughput(4, submitNanos), 0.001);
+        assertEquals(25, report.estimateSeconds(1000, 4, submitNanos));
+    }
+
+    @Test
+    public void shouldNotEstimateWithoutAcceptedCases() {
+        DryRunReport report = new DryRunReport();
+        report.caseRejected();
+
+        assertEquals(0, report.estimateSeconds(1000, 4, 0));
+    }
+}
@@ -0,0 +1,79 @@
+package uk.gov.hmcts.reform.migration.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MigrationMetricsTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void shouldCountOutcomesAndFailuresByExceptionClass() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        MigrationMetrics metrics = new MigrationMetrics(registry, "");
+
+        metrics.runStarted();
+        metrics.caseMigrated();
+        metrics.caseSkipped();
+        metrics.caseFailed(new IllegalStateException("boom"));
+        metrics.caseFailed(new IllegalStateException("boom"));
+
+        assertEquals(1, registry.get("ccd.migration.cases").tag("outcome", "migrated").counter().count());
+        assertEquals(2, registry.get("ccd.migration.cases").tag("outcome", "failed").counter().count());
+        assertEquals(2, registry.get("ccd.migration.failures")
+            .tag("exception", "IllegalStateException").counter().count());
+    }
+
+    @Test
+    public void shouldTimeCallsAndEstimateRemainingTime() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        MigrationMetrics metrics = new MigrationMetrics(registry, "");
+
+        assertEquals("page", metrics.recordSearchPage(() -> "page"));
+        assertTrue(metrics.recordAccepts(() -> true));
+        assertEquals(-1, metrics.estimatedSecondsRemaining());
+
+        metrics.expectCases(10);
+        metrics.caseMigrated();
+
+        assertEquals(1, registry.get("ccd.migration.search.page").timer().count());
+        assertEquals(1, registry.get("ccd.migration.accepts").timer().count());
+        assertTrue(metrics.casesPerSecond() > 0);
+        assertTrue(metrics.estimatedSecondsRemaining() >= 0);
+    }
+
+    @Test
+    public void shouldAddExpectedCasesOfEachCaseType() {
+        MigrationMetrics metrics = new MigrationMetrics(new SimpleMeterRegistry(), "");
+        metrics.runStarted();
+
+        metrics.expectCases(10);
+        metrics.expectCases(5);
+
+        assertEquals(15, metrics.getExpectedCases());
+    }
+
+    @Test
+    public void shouldWritePrometheusReportToFile() throws IOException {
+        Path report = tempDir.resolve("metrics.prom");
+        MigrationMetrics metrics = new MigrationMetrics(new PrometheusMeterRegistry(PrometheusConfig.DEFAULT),
+                                                        report.toString());
+        metrics.caseMigrated();
+
+        metrics.writeReport();
+
+        String content = Files.readString(report);
+        assertTrue(content.contains("ccd_migration_cases_total{outcome=\"migrated\"} 1.0"));
+    }
+}
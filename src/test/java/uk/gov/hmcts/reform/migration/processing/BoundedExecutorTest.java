@@ -0,0 +1,45 @@
+package uk.gov.hmcts.reform.migration.processing;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BoundedExecutorTest {
+
+    @Test
+    public void shouldRunTasksOnCallingThreadWhenConcurrencyIsOne() {
+        Thread caller = Thread.currentThread();
+        try (BoundedExecutor executor = new BoundedExecutor(1, 10)) {
+            executor.execute(() -> assertSame(caller, Thread.currentThread()));
+        }
+    }
+
+    @Test
+    public void shouldNotExceedConcurrencyAndCompleteAllTasksOnClose() {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        AtomicInteger completed = new AtomicInteger();
+
+        try (BoundedExecutor executor = new BoundedExecutor(3, 2)) {
+            for (int i = 0; i < 50; i++) {
+                executor.execute(() -> {
+                    maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                    try {
+                        Thread.sleep(2);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    inFlight.decrementAndGet();
+                    completed.incrementAndGet();
+                });
+            }
+        }
+
+        assertEquals(50, completed.get());
+        assertTrue(maxInFlight.get() <= 3);
+    }
+}
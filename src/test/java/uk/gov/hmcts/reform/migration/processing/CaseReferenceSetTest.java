@@ -0,0 +1,49 @@
+package uk.gov.hmcts.reform.migration.processing;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CaseReferenceSetTest {
+
+    @Test
+    public void shouldAddEachReferenceOnceAndCountDuplicates() {
+        CaseReferenceSet set = new CaseReferenceSet(2);
+
+        assertTrue(set.add(1677777777000001L));
+        assertTrue(set.add(0L));
+        assertFalse(set.add(1677777777000001L));
+        assertFalse(set.add(0L));
+
+        assertEquals(2, set.size());
+        assertEquals(2, set.getDuplicates());
+        assertTrue(set.contains(0L));
+        assertFalse(set.contains(1677777777000002L));
+    }
+
+    @Test
+    public void shouldKeepReferencesWhenGrowing() {
+        CaseReferenceSet set = new CaseReferenceSet(1);
+        long first = 1_600_000_000_000_000L;
+
+        for (long reference = first; reference < first + 100_000; reference += 7) {
+            assertTrue(set.add(reference));
+        }
+
+        assertEquals(14_286, set.size());
+        for (long reference = first; reference < first + 100_000; reference++) {
+            assertEquals((reference - first) % 7 == 0, set.contains(reference));
+        }
+        assertEquals(0, set.getDuplicates());
+    }
+
+    @Test
+    public void shouldSizeTableForExpectedReferences() {
+        assertEquals(16 * Long.BYTES, new CaseReferenceSet(0).tableBytes());
+        assertEquals(16 * Long.BYTES, new CaseReferenceSet(12).tableBytes());
+        assertEquals(32 * Long.BYTES, new CaseReferenceSet(13).tableBytes());
+        assertEquals(128L << 20, new CaseReferenceSet(10_000_000).tableBytes());
+    }
+}
@@ -0,0 +1,101 @@
+package uk.gov.hmcts.reform.migration.processing;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CaseUpdatePipelineTest {
+
+    @Test
+    public void shouldPassEachCaseThroughAllStages() {
+        Map<Integer, String> results = new ConcurrentHashMap<>();
+        List<PipelineStage> stages;
+
+        try (CaseUpdatePipeline pipeline = new CaseUpdatePipeline(4, 2, 4, 3, 0)) {
+            stages = pipeline.getStages();
+            for (int i = 0; i < 20; i++) {
+                int caseNumber = i;
+                pipeline.submit(
+                    () -> caseNumber,
+                    started -> "case-" + started,
+                    transformed -> transformed + "-submitted",
+                    (submitted, error) -> results.put(caseNumber, submitted)
+                );
+            }
+        }
+
+        assertEquals(20, results.size());
+        assertEquals("case-7-submitted", results.get(7));
+        for (PipelineStage stage : stages) {
+            assertEquals(20, stage.getCompletedCount());
+            assertEquals(0, stage.getQueueDepth());
+        }
+    }
+
+    @Test
+    public void shouldReportFailureAndSkipLaterStages() {
+        AtomicInteger submitted = new AtomicInteger();
+        Map<Integer, Exception> errors = new ConcurrentHashMap<>();
+
+        try (CaseUpdatePipeline pipeline = new CaseUpdatePipeline(2, 2, 2, 1, 0)) {
+            pipeline.submit(
+                () -> 1,
+                started -> {
+                    throw new IllegalStateException("migration failed");
+                },
+                transformed -> submitted.incrementAndGet(),
+                (result, error) -> errors.put(1, error)
+            );
+        }
+
+        assertEquals(0, submitted.get());
+        assertTrue(errors.get(1) instanceof IllegalStateException);
+    }
+
+    @Test
+    public void shouldFailCaseWhenStepThrowsError() {
+        AtomicInteger submitted = new AtomicInteger();
+        Map<Integer, Exception> errors = new ConcurrentHashMap<>();
+
+        try (CaseUpdatePipeline pipeline = new CaseUpdatePipeline(2, 2, 2, 1, 0)) {
+            pipeline.submit(
+                () -> 1,
+                started -> {
+                    throw new StackOverflowError();
+                },
+                transformed -> submitted.incrementAndGet(),
+                (result, error) -> errors.put(1, error)
+            );
+        }
+
+        assertEquals(0, submitted.get());
+        assertTrue(errors.get(1).getCause() instanceof StackOverflowError);
+    }
+
+    @Test
+    public void shouldFailCaseOnceAndRethrowErrorFromStageOnSubmittingThread() {
+        List<Exception> errors = new CopyOnWriteArrayList<>();
+
+        try (CaseUpdatePipeline pipeline = new CaseUpdatePipeline(1, 1, 1, 0, 0)) {
+            assertThrows(StackOverflowError.class, () -> pipeline.submit(
+                () -> 1,
+                started -> started,
+                transformed -> {
+                    throw new StackOverflowError();
+                },
+                (result, error) -> errors.add(error)
+            ));
+        }
+
+        assertEquals(1, errors.size());
+        assertTrue(errors.get(0).getCause() instanceof StackOverflowError);
+    }
+}
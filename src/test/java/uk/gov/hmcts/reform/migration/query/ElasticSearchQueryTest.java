@@ -3,8 +3,15 @@ package uk.gov.hmcts.reform.migration.query;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
+import uk.gov.hmcts.reform.domain.exception.CaseMigrationException;
+
+import java.util.List;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @ExtendWith(MockitoExtension.class)
 public class ElasticSearchQueryTest {
@@ -59,4 +66,136 @@ public class ElasticSearchQueryTest {
                          + ",\"search_after\": [1677777777]\n"
                          + "}", query);
     }
+
+    @Test
+    public void shouldReturnQueryForReferenceRange() {
+        ElasticSearchQuery elasticSearchQuery =  ElasticSearchQuery.builder()
+            .initialSearch(true)
+            .size(QUERY_SIZE)
+            .referenceRange(new ReferenceRange("1000000000000000", "2000000000000000"))
+            .build();
+        String query = elasticSearchQuery.getQuery();
+        assertEquals("{\n"
+                         + "  \"query\": {\n"
+                         + "    \"range\": {\"reference.keyword\": "
+                         + "{\"gte\": \"1000000000000000\", \"lt\": \"2000000000000000\"}}\n"
+                         + "  },\n"
+                         + "  \"_source\": [\n"
+                         + "    \"reference\"\n"
+                         + "  ],\n"
+                         + "  \"size\": 100,\n"
+                         + "  \"sort\": [\n"
+                         + "    {\n"
+                         + "      \"reference.keyword\": \"asc\"\n"
+                         + "    }\n"
+                         + "  ]\n"
+                         + "\n"
+                         + "}", query);
+    }
+
+    @Test
+    public void shouldReturnQueryWithFilter() {
+        String query = ElasticSearchQuery.builder()
+            .initialSearch(true)
+            .size(QUERY_SIZE)
+            .filter("{\"term\": {\"state.keyword\": \"Open\"}}")
+            .build()
+            .getQuery();
+
+        assertTrue(query.contains("\"query\": {\n"
+                                      + "    \"bool\": {\"filter\": [{\"term\": {\"state.keyword\": \"Open\"}}]}\n"
+                                      + "  },"));
+    }
+
+    @Test
+    public void shouldCombineFilterWithReferenceRange() {
+        String query = ElasticSearchQuery.builder()
+            .initialSearch(true)
+            .size(QUERY_SIZE)
+            .referenceRange(new ReferenceRange("1000000000000000", null))
+            .filter("{\"term\": {\"state.keyword\": \"Open\"}}")
+            .build()
+            .getQuery();
+
+        assertTrue(query.contains("\"bool\": {\"filter\": ["
+                                      + "{\"range\": {\"reference.keyword\": {\"gte\": \"1000000000000000\"}}}, "
+                                      + "{\"term\": {\"state.keyword\": \"Open\"}}]}"));
+    }
+
+    @Test
+    public void shouldReturnQueryWithSourceFields() {
+        String query = ElasticSearchQuery.builder()
+            .initialSearch(true)
+            .size(QUERY_SIZE)
+            .sourceFields(List.of("reference", " state", "data.applicantName"))
+            .build()
+            .getQuery();
+
+        assertTrue(query.contains("  \"_source\": [\n"
+                                      + "    \"reference\",\n"
+                                      + "    \"state\",\n"
+                                      + "    \"data.applicantName\"\n"
+                                      + "  ],\n"));
+    }
+
+    @Test
+    public void shouldSplitReferencesIntoContiguousShards() {
+        ReferenceRange first = ReferenceRange.forShard(0, 3, 1000000000000000L, 9999999999999999L);
+        ReferenceRange second = ReferenceRange.forShard(1, 3, 1000000000000000L, 9999999999999999L);
+        ReferenceRange last = ReferenceRange.forShard(2, 3, 1000000000000000L, 9999999999999999L);
+
+        assertNull(first.from());
+        assertEquals("4000000000000000", first.to());
+        assertEquals("4000000000000000", second.from());
+        assertEquals("7000000000000000", second.to());
+        assertEquals("7000000000000000", last.from());
+        assertNull(last.to());
+        assertTrue(ReferenceRange.forShard(0, 1, null, null).isUnbounded());
+    }
+
+    @Test
+    public void shouldGiveEveryShardShareOfRealisticReferences() {
+        long firstReference = 1690000000000000L;
+        long lastReference = 1760000000000000L;
+        int shardCount = 4;
+        List<ReferenceRange> shards = IntStream.range(0, shardCount)
+            .mapToObj(shard -> ReferenceRange.forShard(shard, shardCount, firstReference, lastReference))
+            .toList();
+
+        int[] shares = new int[shardCount];
+        for (long reference = firstReference; reference <= lastReference + 1000; reference += 1_234_567_891L) {
+            String keyword = String.valueOf(reference);
+            List<Integer> owners = IntStream.range(0, shardCount)
+                .filter(shard -> contains(shards.get(shard), keyword))
+                .boxed()
+                .toList();
+            assertEquals(1, owners.size(), keyword);
+            shares[owners.get(0)]++;
+        }
+
+        for (int share : shares) {
+            assertTrue(share > 0);
+        }
+    }
+
+    @Test
+    public void shouldRequireReferenceBoundsWhenSharding() {
+        assertThrows(CaseMigrationException.class, () -> ReferenceRange.forShard(0, 2, null, 1760000000000000L));
+        assertThrows(CaseMigrationException.class, () -> ReferenceRange.forShard(1, 2, 1690000000000000L, null));
+    }
+
+    @Test
+    public void shouldRejectShardBoundsThatAreNotCaseReferences() {
+        assertThrows(CaseMigrationException.class, () -> ReferenceRange.forShard(0, 2, 1L, 1760000000000000L));
+    }
+
+    @Test
+    public void shouldRejectShardIndexOutsideShardCount() {
+        assertThrows(CaseMigrationException.class, () -> ReferenceRange.forShard(3, 3, 1L, 10L));
+    }
+
+    private static boolean contains(ReferenceRange range, String reference) {
+        return (range.from() == null || reference.compareTo(range.from()) >= 0)
+            && (range.to() == null || reference.compareTo(range.to()) < 0);
+    }
 }
@@ -0,0 +1,76 @@
+package uk.gov.hmcts.reform.migration.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.junit.jupiter.api.Test;
+import uk.gov.hmcts.reform.ccd.client.model.CaseDetails;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CaseDetailsPageTest {
+
+    private final ObjectReader caseReader = CaseDetailsPage.caseReader(new ObjectMapper().findAndRegisterModules());
+
+    @Test
+    public void shouldBindCasesAndSkipClassificationAndOtherFields() throws IOException {
+        CaseDetailsPage page = parseJson("""
+            {
+              "case_types_results": [{"total": 25}],
+              "total": 25,
+              "cases": [
+                {
+                  "id": 1677777777000001,
+                  "jurisdiction": "J",
+                  "state": "Open",
+                  "case_data": {"applicantName": "A", "parties": [{"id": 6}]},
+                  "data_classification": {"applicantName": "PUBLIC"},
+                  "supplementary_data": {"hmctsServiceId": "X"},
+                  "unknown_field": {"nested": [1, 2]}
+                },
+                {"id": 1677777777000002}
+              ]
+            }
+            """);
+
+        assertEquals(25, page.total());
+        assertEquals(2, page.cases().size());
+        CaseDetails first = page.cases().get(0);
+        assertEquals(1677777777000001L, first.getId());
+        assertEquals("Open", first.getState());
+        assertEquals(Map.of("applicantName", "A", "parties", List.of(Map.of("id", 6))), first.getData());
+        assertNull(first.getDataClassification());
+        assertEquals(1677777777000002L, page.cases().get(1).getId());
+    }
+
+    @Test
+    public void shouldReturnEmptyPageWhenBodyIsNotAnObject() throws IOException {
+        assertSame(CaseDetailsPage.EMPTY, parseJson("[]"));
+        assertSame(CaseDetailsPage.EMPTY, parseJson(""));
+    }
+
+    @Test
+    public void shouldReturnNoCasesWhenCasesAreMissing() throws IOException {
+        CaseDetailsPage page = parseJson("{\"total\": 0}");
+
+        assertEquals(0, page.total());
+        assertTrue(page.isEmpty());
+    }
+
+    private CaseDetailsPage parseJson(String json) throws IOException {
+        return CaseDetailsPage.parse(json(json), caseReader);
+    }
+
+    private static InputStream json(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
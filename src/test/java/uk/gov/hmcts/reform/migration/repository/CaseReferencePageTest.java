@@ -0,0 +1,66 @@
+package uk.gov.hmcts.reform.migration.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CaseReferencePageTest {
+
+    @Test
+    public void shouldReadReferencesAndSkipCaseData() throws IOException {
+        long[] buffer = new long[4];
+
+        CaseReferencePage page = CaseReferencePage.parse(json("""
+            {
+              "total": 25,
+              "cases": [
+                {"id": 1677777777000001, "jurisdiction": "J", "case_data": {"id": 5, "parties": [{"id": 6}]}},
+                {"case_data": {}, "id": "1677777777000002"}
+              ],
+              "case_types_results": [{"total": 25}]
+            }
+            """), buffer);
+
+        assertEquals(25, page.total());
+        assertEquals(2, page.size());
+        assertSame(buffer, page.references());
+        assertEquals(1677777777000002L, page.last());
+        assertArrayEquals(new long[] {1677777777000001L, 1677777777000002L},
+                          Arrays.copyOf(page.references(), page.size()));
+    }
+
+    @Test
+    public void shouldGrowBufferForLargerPage() throws IOException {
+        CaseReferencePage page = CaseReferencePage.parse(json("{\"total\": 3, \"cases\": [{\"id\": 1}, {\"id\": 2}, "
+                                                                  + "{\"id\": 3}]}"), new long[1]);
+
+        assertEquals(3, page.size());
+        assertEquals(3L, page.last());
+    }
+
+    @Test
+    public void shouldReturnEmptyPageWhenNoCases() throws IOException {
+        assertTrue(CaseReferencePage.parse(json("{\"total\": 0, \"cases\": []}"), new long[1]).isEmpty());
+        assertTrue(CaseReferencePage.parse(json(""), new long[1]).isEmpty());
+    }
+
+    @Test
+    public void shouldRejectCaseWithoutId() {
+        assertThrows(IOException.class,
+            () -> CaseReferencePage.parse(json("{\"total\": 1, \"cases\": [{\"state\": \"Open\"}]}"), new long[1]));
+    }
+
+    private static InputStream json(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,21 +1,35 @@
 package uk.gov.hmcts.reform.migration.repository;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import feign.FeignException;
+import feign.Request;
+import feign.Response;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import uk.gov.hmcts.reform.authorisation.generators.AuthTokenGenerator;
-import uk.gov.hmcts.reform.ccd.client.CoreCaseDataApi;
 import uk.gov.hmcts.reform.ccd.client.model.CaseDetails;
-import uk.gov.hmcts.reform.ccd.client.model.SearchResult;
+import uk.gov.hmcts.reform.domain.exception.CaseMigrationException;
+import uk.gov.hmcts.reform.migration.ccd.AdaptiveRateLimiter;
+import uk.gov.hmcts.reform.migration.ccd.CaseSearchApi;
+import uk.gov.hmcts.reform.migration.metrics.MigrationMetrics;
+import uk.gov.hmcts.reform.migration.service.DataMigrationService;
 
-import java.util.ArrayList;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
-import static org.mockito.Mockito.mock;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -67,42 +81,58 @@ public class ElasticSearchRepositoryTest {
     private ElasticSearchRepository elasticSearchRepository;
 
     @Mock
-    private CoreCaseDataApi coreCaseDataApi;
+    private CaseSearchApi caseSearchApi;
 
     @Mock
     private AuthTokenGenerator authTokenGenerator;
 
+    @Mock
+    private DataMigrationService<?> dataMigrationService;
+
     @BeforeEach
     public void setUp() {
-        elasticSearchRepository = new ElasticSearchRepository(coreCaseDataApi,
-                                                              authTokenGenerator,
-                                                              QUERY_SIZE,
-                                                              CASE_PROCESS_LIMIT);
+        elasticSearchRepository = repository(0);
         when(authTokenGenerator.generate()).thenReturn(AUTH_TOKEN);
     }
 
+    private ElasticSearchRepository repository(int prefetchDepth) {
+        return new ElasticSearchRepository(caseSearchApi,
+                                           authTokenGenerator,
+                                           new AdaptiveRateLimiter(0, 1, 0.5, 5000, 1, 0, 0),
+                                           new MigrationMetrics(new SimpleMeterRegistry(), ""),
+                                           dataMigrationService,
+                                           new ObjectMapper().findAndRegisterModules(),
+                                           QUERY_SIZE,
+                                           CASE_PROCESS_LIMIT,
+                                           0,
+                                           1,
+                                           null,
+                                           null,
+                                           List.of("reference"),
+                                           prefetchDepth);
+    }
+
     @Test
     public void shouldReturnSearchResultsForCaseTypeElasticSearch() {
-        SearchResult searchResult = mock(SearchResult.class);
-        when(coreCaseDataApi.searchCases(
+        when(caseSearchApi.searchCases(
             USER_TOKEN,
             AUTH_TOKEN,
             CASE_TYPE,
             INITIAL_QUERY
-        )).thenReturn(searchResult);
+        )).thenReturn(response(200, "{\"total\": 0, \"cases\": []}"));
         List<CaseDetails> caseDetails = elasticSearchRepository.findCaseByCaseType(USER_TOKEN, CASE_TYPE);
         assertNotNull(caseDetails);
         assertEquals(0, caseDetails.size());
     }
 
     @Test
-    public void shouldNotReturnCaseDetailsForCaseTypeWhenSearchResultIsNull() {
-        when(coreCaseDataApi.searchCases(
+    public void shouldNotReturnCaseDetailsForCaseTypeWhenResponseHasNoBody() {
+        when(caseSearchApi.searchCases(
             USER_TOKEN,
             AUTH_TOKEN,
             CASE_TYPE,
             INITIAL_QUERY
-        )).thenReturn(null);
+        )).thenReturn(response(200, null));
         List<CaseDetails> caseDetails = elasticSearchRepository.findCaseByCaseType(USER_TOKEN, CASE_TYPE);
         assertNotNull(caseDetails);
         assertEquals(0, caseDetails.size());
@@ -110,86 +140,201 @@ public class ElasticSearchRepositoryTest {
 
     @Test
     public void shouldReturnSearchResultsAndCaseDetailsForCaseTypeElasticSearch() {
-        SearchResult searchResult = mock(SearchResult.class);
-        List<CaseDetails> caseDetails = new ArrayList<>();
-        CaseDetails details = mock(CaseDetails.class);
-        when(details.getId()).thenReturn(1677777777L);
-        caseDetails.add(details);
-        when(searchResult.getCases()).thenReturn(caseDetails);
-        when(searchResult.getTotal()).thenReturn(1);
-        when(coreCaseDataApi.searchCases(
+        when(caseSearchApi.searchCases(
             USER_TOKEN,
             AUTH_TOKEN,
             CASE_TYPE,
             INITIAL_QUERY
-        )).thenReturn(searchResult);
-
-        SearchResult searchAfterResult = mock(SearchResult.class);
-        when(coreCaseDataApi.searchCases(
+        )).thenReturn(response(200, "{\"total\": 2, \"cases\": [{\"id\": 1677777777}]}"));
+        when(caseSearchApi.searchCases(
             USER_TOKEN,
             AUTH_TOKEN,
             CASE_TYPE,
             SEARCH_AFTER_QUERY
-        )).thenReturn(searchAfterResult);
-        List<CaseDetails> caseDetails1 = new ArrayList<>();
-        CaseDetails details1 = mock(CaseDetails.class);
-        caseDetails1.add(details1);
-        when(searchAfterResult.getCases()).thenReturn(caseDetails1);
+        )).thenReturn(response(200, "{\"total\": 2, \"cases\": [{\"id\": 1677777778}]}"));
+        when(caseSearchApi.searchCases(
+            USER_TOKEN,
+            AUTH_TOKEN,
+            CASE_TYPE,
+            SEARCH_AFTER_QUERY.replace("1677777777", "1677777778")
+        )).thenReturn(response(200, "{\"total\": 2, \"cases\": []}"));
 
         List<CaseDetails> returnCaseDetails = elasticSearchRepository.findCaseByCaseType(USER_TOKEN, CASE_TYPE);
         assertNotNull(returnCaseDetails);
 
         verify(authTokenGenerator, times(1)).generate();
 
-        verify(coreCaseDataApi, times(1)).searchCases(USER_TOKEN,
-                                                      AUTH_TOKEN,
-                                                      CASE_TYPE,
-                                                      INITIAL_QUERY);
-        verify(coreCaseDataApi, times(1)).searchCases(USER_TOKEN,
-                                                      AUTH_TOKEN,
-                                                      CASE_TYPE,
-                                                      SEARCH_AFTER_QUERY);
+        verify(caseSearchApi, times(1)).searchCases(USER_TOKEN,
+                                                    AUTH_TOKEN,
+                                                    CASE_TYPE,
+                                                    INITIAL_QUERY);
+        verify(caseSearchApi, times(1)).searchCases(USER_TOKEN,
+                                                    AUTH_TOKEN,
+                                                    CASE_TYPE,
+                                                    SEARCH_AFTER_QUERY);
 
-        assertEquals(2, returnCaseDetails.size());
+        assertEquals(List.of(1677777777L, 1677777778L), returnCaseDetails.stream().map(CaseDetails::getId).toList());
     }
 
     @Test
-    public void shouldReturnOnlyInitialCaseDetailsWhenSearchAfterReturnsNullSearchResults() {
-        SearchResult searchResult = mock(SearchResult.class);
-        List<CaseDetails> caseDetails = new ArrayList<>();
-        CaseDetails details = mock(CaseDetails.class);
-        when(details.getId()).thenReturn(1677777777L);
-        caseDetails.add(details);
-        when(searchResult.getCases()).thenReturn(caseDetails);
-        when(searchResult.getTotal()).thenReturn(1);
-        when(coreCaseDataApi.searchCases(
+    public void shouldReturnOnlyInitialCaseDetailsWhenSearchAfterResponseHasNoBody() {
+        when(caseSearchApi.searchCases(
             USER_TOKEN,
             AUTH_TOKEN,
             CASE_TYPE,
             INITIAL_QUERY
-        )).thenReturn(searchResult);
+        )).thenReturn(response(200, "{\"total\": 1, \"cases\": [{\"id\": 1677777777}]}"));
 
-        when(coreCaseDataApi.searchCases(
+        when(caseSearchApi.searchCases(
             USER_TOKEN,
             AUTH_TOKEN,
             CASE_TYPE,
             SEARCH_AFTER_QUERY
-        )).thenReturn(null);
+        )).thenReturn(response(200, null));
 
         List<CaseDetails> returnCaseDetails = elasticSearchRepository.findCaseByCaseType(USER_TOKEN, CASE_TYPE);
         assertNotNull(returnCaseDetails);
 
         verify(authTokenGenerator, times(1)).generate();
 
-        verify(coreCaseDataApi, times(1)).searchCases(USER_TOKEN,
-                                                      AUTH_TOKEN,
-                                                      CASE_TYPE,
-                                                      INITIAL_QUERY);
-        verify(coreCaseDataApi, times(1)).searchCases(USER_TOKEN,
-                                                      AUTH_TOKEN,
-                                                      CASE_TYPE,
-                                                      SEARCH_AFTER_QUERY);
+        verify(caseSearchApi, times(1)).searchCases(USER_TOKEN,
+                                                    AUTH_TOKEN,
+                                                    CASE_TYPE,
+                                                    INITIAL_QUERY);
+        verify(caseSearchApi, times(1)).searchCases(USER_TOKEN,
+                                                    AUTH_TOKEN,
+                                                    CASE_TYPE,
+                                                    SEARCH_AFTER_QUERY);
 
         assertEquals(1, returnCaseDetails.size());
     }
+
+    @Test
+    public void shouldNotRequestNextPageWhenStreamIsShortCircuited() {
+        when(caseSearchApi.searchCases(
+            USER_TOKEN,
+            AUTH_TOKEN,
+            CASE_TYPE,
+            INITIAL_QUERY
+        )).thenReturn(response(200, "{\"total\": 1, \"cases\": [{\"id\": 1677777777}]}"));
+
+        List<CaseDetails> returnCaseDetails;
+        try (Stream<CaseDetails> cases = elasticSearchRepository.streamCaseByCaseType(USER_TOKEN, CASE_TYPE)) {
+            returnCaseDetails = cases.limit(1).collect(Collectors.toList());
+        }
+
+        assertEquals(1, returnCaseDetails.size());
+        verify(caseSearchApi, times(1)).searchCases(USER_TOKEN,
+                                                    AUTH_TOKEN,
+                                                    CASE_TYPE,
+                                                    INITIAL_QUERY);
+        verify(caseSearchApi, never()).searchCases(USER_TOKEN,
+                                                   AUTH_TOKEN,
+                                                   CASE_TYPE,
+                                                   SEARCH_AFTER_QUERY);
+    }
+
+    @Test
+    public void shouldFilterSearchWithMigrationQuery() {
+        when(dataMigrationService.query()).thenReturn(" {\"term\": {\"state.keyword\": \"Open\"}} ");
+        when(caseSearchApi.searchCases(
+            USER_TOKEN,
+            AUTH_TOKEN,
+            CASE_TYPE,
+            INITIAL_QUERY.replace("\"match_all\": {}",
+                                  "\"bool\": {\"filter\": [{\"term\": {\"state.keyword\": \"Open\"}}]}")
+        )).thenReturn(response(200, null));
+
+        List<CaseDetails> caseDetails = elasticSearchRepository.findCaseByCaseType(USER_TOKEN, CASE_TYPE);
+
+        assertEquals(0, caseDetails.size());
+    }
+
+    @Test
+    public void shouldRejectMigrationQueryThatIsNotJsonObject() {
+        when(dataMigrationService.query()).thenReturn("\"term\": {\"state.keyword\": \"Open\"}");
+
+        assertThrows(CaseMigrationException.class,
+            () -> elasticSearchRepository.streamCaseByCaseType(USER_TOKEN, CASE_TYPE));
+    }
+
+    @Test
+    public void shouldStreamCaseReferencesPageByPage() {
+        when(caseSearchApi.searchCases(USER_TOKEN, AUTH_TOKEN, CASE_TYPE, INITIAL_QUERY))
+            .thenReturn(response(200, "{\"total\": 2, \"cases\": [{\"id\": 1677777776}, {\"id\": 1677777777}]}"));
+        when(caseSearchApi.searchCases(USER_TOKEN, AUTH_TOKEN, CASE_TYPE, SEARCH_AFTER_QUERY))
+            .thenReturn(response(200, "{\"total\": 2, \"cases\": []}"));
+
+        long[] references;
+        try (LongStream cases = elasticSearchRepository.streamCaseReferencesByCaseType(USER_TOKEN, CASE_TYPE, null)) {
+            references = cases.toArray();
+        }
+
+        assertArrayEquals(new long[] {1677777776L, 1677777777L}, references);
+        verify(caseSearchApi, times(1)).searchCases(USER_TOKEN, AUTH_TOKEN, CASE_TYPE, SEARCH_AFTER_QUERY);
+    }
+
+    @Test
+    public void shouldFailReferenceSearchOnErrorResponse() {
+        when(caseSearchApi.searchCases(USER_TOKEN, AUTH_TOKEN, CASE_TYPE, INITIAL_QUERY))
+            .thenReturn(response(400, "{\"message\": \"bad query\"}"));
+
+        try (LongStream cases = elasticSearchRepository.streamCaseReferencesByCaseType(USER_TOKEN, CASE_TYPE, null)) {
+            assertThrows(FeignException.class, cases::toArray);
+        }
+    }
+
+    @Test
+    public void shouldPrefetchNextPages() {
+        when(caseSearchApi.searchCases(USER_TOKEN, AUTH_TOKEN, CASE_TYPE, INITIAL_QUERY))
+            .thenReturn(response(200, "{\"total\": 2, \"cases\": [{\"id\": 1677777777}]}"));
+        when(caseSearchApi.searchCases(USER_TOKEN, AUTH_TOKEN, CASE_TYPE, SEARCH_AFTER_QUERY))
+            .thenReturn(response(200, "{\"total\": 2, \"cases\": [{\"id\": 1677777778}]}"));
+        when(caseSearchApi.searchCases(USER_TOKEN, AUTH_TOKEN, CASE_TYPE,
+                                       SEARCH_AFTER_QUERY.replace("1677777777", "1677777778")))
+            .thenReturn(response(200, null));
+
+        List<CaseDetails> caseDetails = repository(2).findCaseByCaseType(USER_TOKEN, CASE_TYPE);
+
+        assertEquals(List.of(1677777777L, 1677777778L), caseDetails.stream().map(CaseDetails::getId).toList());
+    }
+
+    @Test
+    public void shouldPrefetchReferencePagesIntoRecycledBuffers() {
+        when(caseSearchApi.searchCases(USER_TOKEN, AUTH_TOKEN, CASE_TYPE, INITIAL_QUERY))
+            .thenReturn(response(200, "{\"total\": 2, \"cases\": [{\"id\": 1677777777}]}"));
+        when(caseSearchApi.searchCases(USER_TOKEN, AUTH_TOKEN, CASE_TYPE, SEARCH_AFTER_QUERY))
+            .thenReturn(response(200, "{\"total\": 2, \"cases\": [{\"id\": 1677777778}]}"));
+        when(caseSearchApi.searchCases(USER_TOKEN, AUTH_TOKEN, CASE_TYPE,
+                                       SEARCH_AFTER_QUERY.replace("1677777777", "1677777778")))
+            .thenReturn(response(200, "{\"total\": 2, \"cases\": []}"));
+
+        long[] references;
+        try (LongStream cases = repository(1).streamCaseReferencesByCaseType(USER_TOKEN, CASE_TYPE, null)) {
+            references = cases.toArray();
+        }
+
+        assertArrayEquals(new long[] {1677777777L, 1677777778L}, references);
+    }
+
+    @Test
+    public void shouldRethrowPrefetchFailureToConsumer() {
+        when(caseSearchApi.searchCases(USER_TOKEN, AUTH_TOKEN, CASE_TYPE, INITIAL_QUERY))
+            .thenThrow(new IllegalStateException("search failed"));
+
+        try (Stream<CaseDetails> cases = repository(1).streamCaseByCaseType(USER_TOKEN, CASE_TYPE)) {
+            assertThrows(IllegalStateException.class, cases::count);
+        }
+    }
+
+    private static Response response(int status, String body) {
+        Response.Builder response = Response.builder()
+            .status(status)
+            .request(Request.create(Request.HttpMethod.POST, "/searchCases", Map.of(), null,
+                                    StandardCharsets.UTF_8, null));
+        if (body != null) {
+            response.body(body, StandardCharsets.UTF_8);
+        }
+        return response.build();
+    }
 }
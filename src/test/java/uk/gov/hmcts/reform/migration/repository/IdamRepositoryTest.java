@@ -6,7 +6,9 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import uk.gov.hmcts.reform.idam.client.IdamClient;
+import uk.gov.hmcts.reform.idam.client.models.UserInfo;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.times;
@@ -36,4 +38,11 @@ public class IdamRepositoryTest {
         verify(idamClient, times(1)).getAccessToken(IDAM_USER_NAME, IDAM_PASS);
         assertNotNull(authToken);
     }
+
+    @Test
+    public void shouldGetUserInfoWithBearerToken() {
+        UserInfo userInfo = UserInfo.builder().uid("30").build();
+        when(idamClient.getUserInfo("Bearer Test_Auth")).thenReturn(userInfo);
+        assertEquals(userInfo, idamRepository.getUserInfo("Test_Auth"));
+    }
 }
@@ -0,0 +1,92 @@
+package uk.gov.hmcts.reform.migration.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PagePrefetcherTest {
+
+    @Test
+    public void shouldReturnPagesInOrderThenNull() {
+        AtomicInteger pages = new AtomicInteger();
+        try (PagePrefetcher<Integer> prefetcher = new PagePrefetcher<>(
+            () -> pages.incrementAndGet() <= 3 ? pages.get() : null, 2)) {
+            assertEquals(1, prefetcher.take());
+            assertEquals(2, prefetcher.take());
+            assertEquals(3, prefetcher.take());
+            assertNull(prefetcher.take());
+            assertNull(prefetcher.take());
+        }
+    }
+
+    @Test
+    public void shouldNotFetchMoreThanDepthPagesAhead() throws InterruptedException {
+        List<CountDownLatch> fetches = List.of(new CountDownLatch(1), new CountDownLatch(1), new CountDownLatch(1),
+                                               new CountDownLatch(1));
+        AtomicInteger fetched = new AtomicInteger();
+        try (PagePrefetcher<Integer> prefetcher = new PagePrefetcher<>(() -> {
+            int page = fetched.incrementAndGet();
+            fetches.get(Math.min(page, fetches.size()) - 1).countDown();
+            return page;
+        }, 2)) {
+            assertTrue(fetches.get(1).await(5, TimeUnit.SECONDS));
+            assertFalse(fetches.get(2).await(100, TimeUnit.MILLISECONDS));
+
+            assertEquals(1, prefetcher.take());
+            assertTrue(fetches.get(2).await(5, TimeUnit.SECONDS));
+            assertFalse(fetches.get(3).await(100, TimeUnit.MILLISECONDS));
+        }
+        assertEquals(3, fetched.get());
+    }
+
+    @Test
+    public void shouldStopFetcherBeforeClosing() throws InterruptedException {
+        CountDownLatch fetching = new CountDownLatch(1);
+        AtomicBoolean stopped = new AtomicBoolean();
+        PagePrefetcher<Integer> prefetcher = new PagePrefetcher<>(() -> {
+            fetching.countDown();
+            try {
+                new CountDownLatch(1).await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            stopped.set(true);
+            return null;
+        }, 1);
+        assertTrue(fetching.await(5, TimeUnit.SECONDS));
+
+        prefetcher.close();
+
+        assertTrue(stopped.get());
+    }
+
+    @Test
+    public void shouldRethrowFetchFailure() {
+        try (PagePrefetcher<Integer> prefetcher = new PagePrefetcher<>(() -> {
+            throw new IllegalStateException("search failed");
+        }, 1)) {
+            assertThrows(IllegalStateException.class, prefetcher::take);
+            assertNull(prefetcher.take());
+        }
+    }
+
+    @Test
+    public void shouldRethrowErrorThatStoppedFetcher() {
+        try (PagePrefetcher<Integer> prefetcher = new PagePrefetcher<>(() -> {
+            throw new OutOfMemoryError("Java heap space");
+        }, 1)) {
+            assertThrows(OutOfMemoryError.class, prefetcher::take);
+            assertNull(prefetcher.take());
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package uk.gov.hmcts.reform.migration.result;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CaseIdListTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void shouldKeepIdsInOrderAcrossChunks() {
+        CaseIdList ids = new CaseIdList();
+        assertTrue(ids.isEmpty());
+
+        LongStream.rangeClosed(1, 20_000).forEach(ids::add);
+
+        assertEquals(20_000, ids.size());
+        assertArrayEquals(LongStream.rangeClosed(1, 20_000).toArray(), ids.toArray());
+        assertEquals(200_010_000L, ids.stream().sum());
+    }
+
+    @Test
+    public void shouldAcceptConcurrentAdds() {
+        CaseIdList ids = new CaseIdList();
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(4)) {
+            for (int thread = 0; thread < 4; thread++) {
+                long first = thread * 10_000L;
+                executor.execute(() -> LongStream.range(first, first + 10_000).forEach(ids::add));
+            }
+        }
+
+        assertEquals(40_000, ids.size());
+        assertEquals(LongStream.range(0, 40_000).sum(), ids.stream().sum());
+    }
+
+    @Test
+    public void shouldLimitIdsShownInLog() {
+        CaseIdList ids = new CaseIdList();
+        LongStream.rangeClosed(1, 5).forEach(ids::add);
+
+        assertEquals("[1, 2] and 3 more", ids.toString(2));
+        assertEquals("[1, 2, 3, 4, 5]", ids.toString());
+    }
+
+    @Test
+    public void shouldWriteOneIdPerLine() throws IOException {
+        CaseIdList ids = new CaseIdList();
+        ids.add(1677777777000001L);
+        ids.add(1677777777000002L);
+        Path file = dir.resolve("ids.txt");
+
+        ids.writeTo(file);
+
+        assertEquals(List.of("1677777777000001", "1677777777000002"), Files.readAllLines(file));
+    }
+
+    @Test
+    public void shouldReadIdsWrittenToFile() throws IOException {
+        Path file = Files.writeString(dir.resolve("ids.txt"),
+                                      "# failed cases\n1677777777000001\n\n 1677777777000002 \n");
+
+        assertArrayEquals(new long[] {1677777777000001L, 1677777777000002L}, CaseIdList.readFrom(file).toArray());
+    }
+}
@@ -0,0 +1,116 @@
+package uk.gov.hmcts.reform.migration.result;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static uk.gov.hmcts.reform.migration.result.CaseOutcome.Outcome.DRY_RUN;
+import static uk.gov.hmcts.reform.migration.result.CaseOutcome.Outcome.FAILED;
+import static uk.gov.hmcts.reform.migration.result.CaseOutcome.Outcome.MIGRATED;
+import static uk.gov.hmcts.reform.migration.result.CaseOutcome.Outcome.SKIPPED;
+import static uk.gov.hmcts.reform.migration.result.CaseOutcome.Outcome.UNCHANGED;
+
+public class OutcomeJournalTest {
+
+    private static final String CASE_TYPE = "CASE_TYPE";
+
+    @TempDir
+    Path dir;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    public void shouldNotWriteAnythingWhenDisabled() {
+        OutcomeJournal journal = new OutcomeJournal(objectMapper, "", 10, 10);
+
+        try (OutcomeJournalWriter writer = journal.open()) {
+            writer.record(outcome(1L, MIGRATED));
+        }
+
+        assertTrue(isEmpty(dir));
+    }
+
+    @Test
+    public void shouldWriteOneJsonLinePerOutcome() throws IOException {
+        Path file = dir.resolve("journal.ndjson");
+        OutcomeJournal journal = new OutcomeJournal(objectMapper, file.toString(), 2, 3);
+
+        try (OutcomeJournalWriter writer = journal.open();
+             ExecutorService executor = Executors.newFixedThreadPool(4)) {
+            for (long id = 1; id <= 100; id++) {
+                long caseId = id;
+                executor.execute(() -> writer.record(outcome(caseId, caseId % 10 == 0 ? FAILED : MIGRATED)));
+            }
+        }
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(100, lines.size());
+        CaseOutcome first = objectMapper.readValue(lines.get(0), CaseOutcome.class);
+        assertEquals(CASE_TYPE, first.caseType());
+        assertEquals("J", first.jurisdiction());
+        assertEquals(10, journal.readFailedCases(file, CASE_TYPE).size());
+    }
+
+    @Test
+    public void shouldRebuildFailedCasesFromLatestOutcome() throws IOException {
+        Path file = dir.resolve("journal.ndjson");
+        OutcomeJournal journal = new OutcomeJournal(objectMapper, file.toString(), 10, 10);
+        try (OutcomeJournalWriter writer = journal.open()) {
+            writer.record(outcome(1L, FAILED));
+            writer.record(outcome(2L, FAILED));
+            writer.record(outcome(3L, SKIPPED));
+            writer.record(new CaseOutcome(4L, "OTHER", "J", FAILED, "boom", 5, "2026-01-01T00:00:00Z"));
+        }
+        try (OutcomeJournalWriter writer = journal.open()) {
+            writer.record(outcome(1L, MIGRATED));
+        }
+        Files.writeString(file, "{\"id\":5,\"caseTy", StandardOpenOption.APPEND);
+
+        assertArrayEquals(new long[] {2L}, journal.readFailedCases(file, CASE_TYPE).toArray());
+        assertArrayEquals(new long[] {2L, 4L}, journal.readFailedCases(file, null).toArray());
+    }
+
+    @Test
+    public void shouldKeepFailedCaseAfterLaterDryRun() {
+        Path file = dir.resolve("journal.ndjson");
+        OutcomeJournal journal = new OutcomeJournal(objectMapper, file.toString(), 10, 10);
+        try (OutcomeJournalWriter writer = journal.open()) {
+            writer.record(outcome(1L, FAILED));
+            writer.record(outcome(2L, FAILED));
+        }
+        try (OutcomeJournalWriter writer = journal.open()) {
+            writer.record(outcome(1L, DRY_RUN));
+            writer.record(outcome(2L, DRY_RUN));
+        }
+        try (OutcomeJournalWriter writer = journal.open()) {
+            writer.record(outcome(2L, UNCHANGED));
+        }
+
+        assertArrayEquals(new long[] {1L}, journal.readFailedCases(file, CASE_TYPE).toArray());
+    }
+
+    private static CaseOutcome outcome(long id, CaseOutcome.Outcome outcome) {
+        return new CaseOutcome(id, CASE_TYPE, "J", outcome, outcome == FAILED ? "boom" : null, 5,
+                               "2026-01-01T00:00:00Z");
+    }
+
+    private static boolean isEmpty(Path dir) {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.findAny().isEmpty();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package uk.gov.hmcts.reform.migration.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CaseDataTest {
+
+    @Test
+    public void shouldReadValuesAlongPath() {
+        CaseData data = CaseData.of(caseData());
+
+        assertEquals("SW1 1AA", data.get("applicant.address.PostCode"));
+        assertEquals("B", data.get("respondents[1].value.name", String.class));
+        assertNull(data.get("respondents[5].value.name"));
+        assertNull(data.get("applicant.missing.PostCode"));
+        assertEquals(List.of("N1 1AA", "E1 1AA"), data.getAll("respondents[*].value.address.PostCode"));
+        assertThrows(IllegalArgumentException.class, () -> data.get("respondents[*].value"));
+    }
+
+    @Test
+    public void shouldCopyOnlyContainersOnPathToChange() {
+        Map<String, Object> original = caseData();
+        Map<String, Object> applicant = child(original, "applicant");
+        List<?> respondents = (List<?>) original.get("respondents");
+        CaseData data = CaseData.of(original);
+
+        data.update("respondents[0].value.address.PostCode", postcode -> "N2 2BB");
+        data.set("respondents[0].value.name", "Z");
+
+        Map<String, Object> migrated = data.toMap();
+        assertTrue(data.isChanged());
+        assertNotSame(original, migrated);
+        assertSame(applicant, migrated.get("applicant"));
+        List<?> migratedRespondents = (List<?>) migrated.get("respondents");
+        assertNotSame(respondents, migratedRespondents);
+        assertSame(respondents.get(1), migratedRespondents.get(1));
+        assertEquals("N2 2BB", data.get("respondents[0].value.address.PostCode"));
+        assertEquals("Z", data.get("respondents[0].value.name"));
+        assertEquals("N1 1AA", CaseData.of(original).get("respondents[0].value.address.PostCode"));
+        assertEquals("A", CaseData.of(original).get("respondents[0].value.name"));
+    }
+
+    @Test
+    public void shouldNotCountEqualValuesAsChanges() {
+        Map<String, Object> original = caseData();
+        CaseData data = CaseData.of(original);
+
+        data.update(CasePath.of("respondents[*].value.address.PostCode"), postcode -> ((String) postcode).strip());
+        data.set("applicant.address.PostCode", "SW1 1AA");
+        data.update("applicant.missing.field", value -> "ignored");
+        data.remove("applicant.missing");
+
+        assertFalse(data.isChanged());
+        assertSame(original, data.toMap());
+    }
+
+    @Test
+    public void shouldAddMissingMapsWhenSetting() {
+        Map<String, Object> original = caseData();
+        CaseData data = CaseData.of(original);
+
+        data.set("applicant.contact.email.address", "a@example.com");
+
+        assertTrue(data.isChanged());
+        assertEquals("a@example.com", data.get("applicant.contact.email.address"));
+        assertFalse(child(original, "applicant").containsKey("contact"));
+    }
+
+    @Test
+    public void shouldRemoveFieldsAndListElements() {
+        Map<String, Object> original = caseData();
+        CaseData data = CaseData.of(original);
+
+        data.remove("applicant.address");
+        data.remove("respondents[0]");
+
+        assertNull(data.get("applicant.address"));
+        assertEquals(List.of("E1 1AA"), data.getAll("respondents[*].value.address.PostCode"));
+        assertEquals(2, ((List<?>) original.get("respondents")).size());
+        assertTrue(child(original, "applicant").containsKey("address"));
+    }
+
+    @Test
+    public void shouldCompilePathOnce() {
+        assertSame(CasePath.of("respondents[*].value"), CasePath.of("respondents[*].value"));
+        assertEquals("respondents[*].value", CasePath.of("respondents[*].value").toString());
+        assertThrows(IllegalArgumentException.class, () -> CasePath.of(""));
+        assertThrows(IllegalArgumentException.class, () -> CasePath.of(".field"));
+        assertThrows(IllegalArgumentException.class, () -> CasePath.of("field..other"));
+        assertThrows(IllegalArgumentException.class, () -> CasePath.of("list[x]"));
+        assertThrows(IllegalArgumentException.class, () -> CasePath.of("list[0"));
+    }
+
+    private static Map<String, Object> caseData() {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("applicant", map("name", "Applicant", "address", map("PostCode", "SW1 1AA")));
+        List<Object> respondents = new ArrayList<>();
+        respondents.add(map("id", "1", "value", map("name", "A", "address", map("PostCode", "N1 1AA"))));
+        respondents.add(map("id", "2", "value", map("name", "B", "address", map("PostCode", "E1 1AA"))));
+        data.put("respondents", respondents);
+        return data;
+    }
+
+    private static Map<String, Object> map(String key, Object value) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put(key, value);
+        return map;
+    }
+
+    private static Map<String, Object> map(String key, Object value, String otherKey, Object otherValue) {
+        Map<String, Object> map = map(key, value);
+        map.put(otherKey, otherValue);
+        return map;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> child(Map<String, Object> map, String key) {
+        return (Map<String, Object>) map.get(key);
+    }
+}
@@ -0,0 +1,217 @@
+package uk.gov.hmcts.reform.migration.source;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import uk.gov.hmcts.reform.ccd.client.model.CaseDetails;
+import uk.gov.hmcts.reform.domain.exception.CaseMigrationException;
+import uk.gov.hmcts.reform.migration.repository.CaseDetailsPage;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ExportedCaseSourceTest {
+
+    private static final String CASE_TYPE = "CASE_TYPE";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void shouldReadCasesWithDataFromCsvHeaderColumns() throws IOException {
+        Path export = Files.writeString(dir.resolve("cases.csv"), """
+            Reference,Case_Type,State,data.applicantName,data.note,unused
+            1677777777000001,CASE_TYPE,Open,"Smith, Jo","said ""hi""\",x
+
+            1677777777000002,OTHER,Open,Jones,,x
+            1677777777000003,CASE_TYPE,Closed,,,x
+            """);
+
+        List<CaseDetails> cases;
+        try (CaseDetailsSource source = caseDetailsSource(export, "J");
+             Stream<CaseDetails> stream = source.cases(null, CASE_TYPE, null)) {
+            cases = stream.toList();
+        }
+
+        assertEquals(2, cases.size());
+        CaseDetails first = cases.get(0);
+        assertEquals(1677777777000001L, first.getId());
+        assertEquals("J", first.getJurisdiction());
+        assertEquals(CASE_TYPE, first.getCaseTypeId());
+        assertEquals("Open", first.getState());
+        assertEquals(Map.of("applicantName", "Smith, Jo", "note", "said \"hi\""), first.getData());
+        assertEquals(1677777777000003L, cases.get(1).getId());
+        assertEquals(Map.of(), cases.get(1).getData());
+    }
+
+    @Test
+    public void shouldReadReferencesFromCsvWithoutHeader() throws IOException {
+        Path export = dir.resolve("references.txt");
+        Files.write(export, "\uFEFF1677777777000001\r\n\"1677777777000002\",ignored\r\n 1677777777000003 "
+            .getBytes(StandardCharsets.UTF_8));
+
+        try (CaseReferenceSource source = caseReferenceSource(export, "J");
+             LongStream references = source.references(null, CASE_TYPE, null)) {
+            assertArrayEquals(new long[] {1677777777000001L, 1677777777000002L, 1677777777000003L},
+                              references.toArray());
+        }
+    }
+
+    @Test
+    public void shouldReadReferencesOnlyWhenCsvHasNoCaseData() throws IOException {
+        Path export = Files.writeString(dir.resolve("cases.csv"), """
+            jurisdiction,id,case_type
+            J,1,CASE_TYPE
+            J,2,OTHER
+            J,3,
+            """);
+
+        try (CaseReferenceSource source = caseReferenceSource(export, null);
+             LongStream references = source.references(null, CASE_TYPE, null)) {
+            assertArrayEquals(new long[] {1L, 3L}, references.toArray());
+        }
+    }
+
+    @Test
+    public void shouldReadCasesInSearchResultShapeFromNdjson() throws IOException {
+        Path export = Files.writeString(dir.resolve("cases.ndjson"), """
+            {"id": 1, "case_type_id": "CASE_TYPE", "state": "Open", "case_data": {"name": "A"}, \
+            "data_classification": {"name": "PUBLIC"}}
+            {"id": 2, "case_type_id": "OTHER", "jurisdiction": "X", "case_data": {}}
+            {"id": 3, "jurisdiction": "X", "case_data": {"name": "C"}}
+            """);
+
+        List<CaseDetails> cases;
+        try (CaseDetailsSource source = caseDetailsSource(export, "J");
+             Stream<CaseDetails> stream = source.cases(null, CASE_TYPE, null)) {
+            cases = stream.toList();
+        }
+
+        assertEquals(List.of(1L, 3L), cases.stream().map(CaseDetails::getId).toList());
+        assertEquals("J", cases.get(0).getJurisdiction());
+        assertEquals(Map.of("name", "A"), cases.get(0).getData());
+        assertNull(cases.get(0).getDataClassification());
+        assertEquals("X", cases.get(1).getJurisdiction());
+    }
+
+    @Test
+    public void shouldReadReferencesFromNdjson() throws IOException {
+        Path export = Files.writeString(dir.resolve("references.jsonl"), """
+            {"reference": "1", "case_type": "CASE_TYPE", "extra": {"a": [1]}}
+            {"id": 2, "case_type": "OTHER"}
+            {"id": 3}
+            """);
+
+        try (CaseReferenceSource source = caseReferenceSource(export, "J");
+             LongStream references = source.references(null, CASE_TYPE, null)) {
+            assertArrayEquals(new long[] {1L, 3L}, references.toArray());
+        }
+    }
+
+    @Test
+    public void shouldReadFileAgainForEachCaseType() throws IOException {
+        Path export = Files.writeString(dir.resolve("cases.csv"), "reference,case_type,state\n1,A,Open\n2,B,Open\n");
+
+        try (CaseDetailsSource source = caseDetailsSource(export, "J")) {
+            try (Stream<CaseDetails> cases = source.cases(null, "A", null)) {
+                assertEquals(List.of(1L), cases.map(CaseDetails::getId).toList());
+            }
+            try (Stream<CaseDetails> cases = source.cases(null, "B", null)) {
+                assertEquals(List.of(2L), cases.map(CaseDetails::getId).toList());
+            }
+        }
+    }
+
+    @Test
+    public void shouldReadStandardInputOnlyOnce() throws IOException {
+        ByteArrayInputStream input = new ByteArrayInputStream("1\n2".getBytes(StandardCharsets.UTF_8));
+
+        try (CaseReferenceSource source = assertInstanceOf(CaseReferenceSource.class, ExportedCaseSource.read(
+            input, ExportedCaseSource.Format.CSV, CaseDetailsPage.caseReader(objectMapper), "J"))) {
+            try (LongStream references = source.references(null, CASE_TYPE, null)) {
+                assertArrayEquals(new long[] {1L, 2L}, references.toArray());
+            }
+            assertThrows(CaseMigrationException.class, () -> source.references(null, CASE_TYPE, null));
+        }
+    }
+
+    @Test
+    public void shouldReportLineThatCannotBeRead() throws IOException {
+        Path export = Files.writeString(dir.resolve("references.csv"), "1\n2x\n");
+
+        try (CaseReferenceSource source = caseReferenceSource(export, "J");
+             LongStream references = source.references(null, CASE_TYPE, null)) {
+            CaseMigrationException exception = assertThrows(CaseMigrationException.class, references::toArray);
+            assertTrue(exception.getMessage().contains("line 2"));
+        }
+    }
+
+    @Test
+    public void shouldRejectCsvHeaderWithoutReference() throws IOException {
+        Path export = Files.writeString(dir.resolve("cases.csv"), "state\nOpen\n");
+
+        assertThrows(CaseMigrationException.class,
+                     () -> ExportedCaseSource.open(export.toString(), null, objectMapper, "J", false));
+    }
+
+    @Test
+    public void shouldRejectExportWithoutCaseTypesForSeveralCaseTypes() throws IOException {
+        Path csv = Files.writeString(dir.resolve("cases.csv"), "reference,state\n1,Open\n");
+        Path references = Files.writeString(dir.resolve("references.csv"), "1\n2\n");
+
+        assertThrows(CaseMigrationException.class,
+                     () -> ExportedCaseSource.open(csv.toString(), null, objectMapper, "J", true));
+        assertThrows(CaseMigrationException.class,
+                     () -> ExportedCaseSource.open(references.toString(), null, objectMapper, "J", true));
+    }
+
+    @Test
+    public void shouldStopAtFirstCaseWithoutCaseTypeForSeveralCaseTypes() throws IOException {
+        Path export = Files.writeString(dir.resolve("references.ndjson"), """
+            {"id": 1, "case_type_id": "CASE_TYPE"}
+            {"id": 2}
+            {"id": 3, "case_type_id": "CASE_TYPE"}
+            """);
+
+        try (CaseReferenceSource source = assertInstanceOf(CaseReferenceSource.class, ExportedCaseSource.open(
+                 export.toString(), null, objectMapper, "J", true));
+             LongStream references = source.references(null, CASE_TYPE, null)) {
+            CaseMigrationException exception = assertThrows(CaseMigrationException.class, references::toArray);
+            assertTrue(exception.getMessage().contains("line 2"));
+        }
+    }
+
+    @Test
+    public void shouldTakeFormatFromPropertyOrExtension() {
+        assertEquals(ExportedCaseSource.Format.NDJSON, ExportedCaseSource.format(" NDJSON ", "-"));
+        assertEquals(ExportedCaseSource.Format.CSV, ExportedCaseSource.format(null, "/exports/cases.CSV"));
+        assertThrows(CaseMigrationException.class, () -> ExportedCaseSource.format(null, "-"));
+        assertThrows(CaseMigrationException.class, () -> ExportedCaseSource.format("xml", "cases.xml"));
+    }
+
+    private CaseDetailsSource caseDetailsSource(Path export, String jurisdiction) {
+        return assertInstanceOf(CaseDetailsSource.class,
+                                ExportedCaseSource.open(export.toString(), null, objectMapper, jurisdiction, false));
+    }
+
+    private CaseReferenceSource caseReferenceSource(Path export, String jurisdiction) {
+        return assertInstanceOf(CaseReferenceSource.class,
+                                ExportedCaseSource.open(export.toString(), null, objectMapper, jurisdiction, false));
+    }
+}
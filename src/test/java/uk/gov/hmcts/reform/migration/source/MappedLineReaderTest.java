@@ -0,0 +1,68 @@
+package uk.gov.hmcts.reform.migration.source;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class MappedLineReaderTest {
+
+    private static final String TEXT = "first\r\n\na line longer than the window\nlast";
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void shouldReadLinesAcrossWindows() throws IOException {
+        Path file = Files.writeString(dir.resolve("lines.txt"), TEXT);
+
+        try (MappedLineReader reader = new MappedLineReader(file, 4)) {
+            assertEquals(List.of("first", "", "a line longer than the window", "last"), lines(reader));
+        }
+    }
+
+    @Test
+    public void shouldReadNothingFromEmptyFile() throws IOException {
+        Path file = Files.writeString(dir.resolve("empty.txt"), "");
+
+        try (MappedLineReader reader = new MappedLineReader(file)) {
+            assertEquals(List.of(), lines(reader));
+        }
+    }
+
+    @Test
+    public void shouldReadSameLinesFromStream() throws IOException {
+        try (StreamLineReader reader = new StreamLineReader(
+            new ByteArrayInputStream(TEXT.getBytes(StandardCharsets.UTF_8)))) {
+            assertEquals(List.of("first", "", "a line longer than the window", "last"), lines(reader));
+        }
+    }
+
+    @Test
+    public void shouldReturnPushedBackLineAgain() throws IOException {
+        Path file = Files.writeString(dir.resolve("lines.txt"), "one\ntwo\n");
+
+        try (MappedLineReader reader = new MappedLineReader(file)) {
+            reader.next();
+            reader.pushBack();
+            assertEquals(List.of("one", "two"), lines(reader));
+        }
+    }
+
+    private static List<String> lines(LineReader reader) throws IOException {
+        List<String> lines = new ArrayList<>();
+        int length;
+        while ((length = reader.next()) >= 0) {
+            lines.add(new String(reader.line(), 0, length, StandardCharsets.UTF_8));
+        }
+        return lines;
+    }
+}